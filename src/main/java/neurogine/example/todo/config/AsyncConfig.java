@@ -0,0 +1,99 @@
+package neurogine.example.todo.config;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.task.DelegatingSecurityContextAsyncTaskExecutor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Executor behind TodoAsyncService. Tasks run with the SecurityContext of the submitting request,
+ * so TodoService.getCurrentUser() keeps working off the servlet thread.
+ * When it is saturated, submission throws TaskRejectedException, answered with 503 by TodoExceptionHandler.
+ * Logins get their own bounded executor (LoginService), so BCrypt never runs on request threads.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+  public static final String TODO_READ_EXECUTOR = "todoReadExecutor";
+  public static final String LOGIN_EXECUTOR = "loginExecutor";
+
+  @Bean(name = TODO_READ_EXECUTOR)
+  public AsyncTaskExecutor todoReadExecutor(Environment environment,
+      @Value("${todo.async.poolSize:32}") int poolSize,
+      @Value("${todo.async.queueCapacity:1000}") int queueCapacity) {
+    AsyncTaskExecutor executor;
+    if (Threading.VIRTUAL.isActive(environment)) {
+      // one virtual thread per read, still capped so the database bulkhead is not flooded; past the cap the
+      // read is rejected (503) rather than parking the submitting request thread
+      SimpleAsyncTaskExecutor virtual = new SimpleAsyncTaskExecutor("todo-read-");
+      virtual.setVirtualThreads(true);
+      virtual.setConcurrencyLimit(poolSize + queueCapacity);
+      virtual.setRejectTasksWhenLimitReached(true);
+      executor = virtual;
+    } else {
+      ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+      pool.setThreadNamePrefix("todo-read-");
+      pool.setCorePoolSize(poolSize);
+      pool.setMaxPoolSize(poolSize);
+      pool.setQueueCapacity(queueCapacity);
+      pool.setWaitForTasksToCompleteOnShutdown(true);
+      pool.initialize();
+      executor = pool;
+    }
+    return new DelegatingSecurityContextAsyncTaskExecutor(executor);
+  }
+
+  /**
+   * Password verification is CPU-bound: one platform thread per core (also under the "virtual" profile)
+   * and a short queue. A full queue rejects the login (TaskRejectedException, answered with 503)
+   * instead of letting a login storm pile up behind the cheap requests.
+   * Queue wait is recorded as todo.auth.login.queue, shed logins as todo.auth.login.rejected.
+   */
+  @Bean(name = LOGIN_EXECUTOR)
+  public AsyncTaskExecutor loginExecutor(MeterRegistry meterRegistry,
+      @Value("${todo.auth.login.threads:0}") int threads,
+      @Value("${todo.auth.login.queueCapacity:100}") int queueCapacity) {
+    int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    Timer queueWait = Timer.builder("todo.auth.login.queue")
+        .description("Time a login waits for a hashing thread")
+        .register(meterRegistry);
+    Counter rejected = Counter.builder("todo.auth.login.rejected")
+        .description("Logins shed because the login queue was full")
+        .register(meterRegistry);
+
+    ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+    pool.setThreadNamePrefix("login-");
+    pool.setCorePoolSize(poolSize);
+    pool.setMaxPoolSize(poolSize);
+    pool.setQueueCapacity(queueCapacity);
+    // decorated on submission, so the timer covers the time spent in the queue
+    pool.setTaskDecorator(task -> {
+      long queued = System.nanoTime();
+      return () -> {
+        queueWait.record(System.nanoTime() - queued, TimeUnit.NANOSECONDS);
+        task.run();
+      };
+    });
+    pool.setRejectedExecutionHandler((task, executor) -> {
+      rejected.increment();
+      throw new RejectedExecutionException("Login queue full");
+    });
+    pool.setWaitForTasksToCompleteOnShutdown(true);
+    pool.initialize();
+    return pool;
+  }
+}
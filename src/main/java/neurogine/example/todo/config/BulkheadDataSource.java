@@ -0,0 +1,110 @@
+package neurogine.example.todo.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Bulkhead in front of the connection pool: at most {@code permits} connections are checked out at once,
+ * and further callers wait on a fair semaphore instead of spinning in the pool's acquisition loop.
+ * A parked virtual thread costs almost nothing, so thousands of requests can queue here cheaply.
+ * The permit is returned when the connection is closed.
+ */
+public class BulkheadDataSource extends DelegatingDataSource {
+
+  private final Semaphore permits;
+  private final long timeoutMillis;
+  private final Timer waitTimer;
+
+  public BulkheadDataSource(DataSource target, String name, int permits, long timeoutMillis,
+      MeterRegistry meterRegistry) {
+    super(target);
+    this.permits = new Semaphore(permits, true);
+    this.timeoutMillis = timeoutMillis;
+    this.waitTimer = Timer.builder("todo.db.bulkhead.wait")
+        .description("Time spent waiting for a database bulkhead permit")
+        .tag("pool", name)
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+    Gauge.builder("todo.db.bulkhead.queued", this.permits, Semaphore::getQueueLength)
+        .description("Threads waiting for a database bulkhead permit")
+        .tag("pool", name)
+        .register(meterRegistry);
+    Gauge.builder("todo.db.bulkhead.available", this.permits, Semaphore::availablePermits)
+        .tag("pool", name)
+        .register(meterRegistry);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    acquire();
+    try {
+      return releasing(super.getConnection());
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    acquire();
+    try {
+      return releasing(super.getConnection(username, password));
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  private void acquire() throws SQLException {
+    long start = System.nanoTime();
+    boolean acquired;
+    try {
+      acquired = permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLTransientConnectionException("Interrupted while waiting for a database permit", e);
+    } finally {
+      waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+    if (!acquired) {
+      throw new SQLTransientConnectionException(
+          "Database bulkhead full, no permit within " + timeoutMillis + "ms");
+    }
+  }
+
+  private Connection releasing(Connection connection) {
+    AtomicBoolean released = new AtomicBoolean();
+    return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+        (proxy, method, args) -> {
+          if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+            try {
+              return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+              throw e.getTargetException();
+            } finally {
+              permits.release();
+            }
+          }
+          try {
+            return method.invoke(connection, args);
+          } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+          }
+        });
+  }
+}
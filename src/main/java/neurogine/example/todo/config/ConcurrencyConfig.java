@@ -0,0 +1,69 @@
+package neurogine.example.todo.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.java21.instrument.binder.jdk.VirtualThreadMetrics;
+
+/**
+ * Request execution on virtual threads (profile "virtual", spring.threads.virtual.enabled)
+ * and the database bulkhead that keeps those threads from all contending for the pool at once.
+ */
+@Configuration
+public class ConcurrencyConfig {
+
+  /**
+   * Wraps each connection pool in a BulkheadDataSource (with a read replica: primary and replica separately,
+   * not the routing DataSource in front of them); Hikari keeps publishing hikaricp.connections.acquire
+   * for the pool wait behind the bulkhead
+   */
+  @Bean
+  @ConditionalOnProperty(name = "todo.db.bulkhead.enabled", havingValue = "true")
+  static BeanPostProcessor databaseBulkhead(
+      @Value("${todo.db.bulkhead.permits:0}") int permits,
+      @Value("${todo.db.bulkhead.timeoutMillis:5000}") long timeoutMillis,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)
+            && !(bean instanceof AbstractRoutingDataSource)) {
+          return new BulkheadDataSource(dataSource, beanName, permits > 0 ? permits : poolSize(dataSource),
+              timeoutMillis, meterRegistry.getObject());
+        }
+        return bean;
+      }
+    };
+  }
+
+  // permits default to the pool's maximum-pool-size (Hikari's default of 10 when unset)
+  private static int poolSize(DataSource dataSource) {
+    if (dataSource instanceof HikariDataSource hikari && hikari.getMaximumPoolSize() > 0) {
+      return hikari.getMaximumPoolSize();
+    }
+    return 10;
+  }
+
+  /**
+   * jvm.threads.virtual.pinned: carrier threads blocked by a virtual thread (synchronized, native frames),
+   * recorded from the JFR jdk.VirtualThreadPinned event
+   */
+  @Bean
+  @ConditionalOnThreading(Threading.VIRTUAL)
+  VirtualThreadMetrics virtualThreadMetrics() {
+    return new VirtualThreadMetrics();
+  }
+}
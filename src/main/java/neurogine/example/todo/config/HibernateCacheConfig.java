@@ -0,0 +1,75 @@
+package neurogine.example.todo.config;
+
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+import neurogine.example.todo.entity.TodoEntity;
+import neurogine.example.todo.entity.UserEntity;
+
+/**
+ * Hibernate second-level cache on an in-process Caffeine JCache (todo.cache.secondLevel.enabled).
+ * Every region is created up front with a size bound and TTL; an unknown region fails startup
+ * instead of silently getting an unbounded cache.
+ * With hibernate.generate_statistics, hit/miss counters are published as
+ * hibernate.second.level.cache.requests and hibernate.query.cache.requests under /actuator/metrics.
+ */
+@Configuration
+@ConditionalOnProperty(name = "todo.cache.secondLevel.enabled", havingValue = "true")
+public class HibernateCacheConfig {
+
+  @Bean(destroyMethod = "close")
+  CacheManager hibernateCacheManager(
+      @Value("${todo.cache.secondLevel.maxEntries:100000}") long maxEntries,
+      @Value("${todo.cache.secondLevel.ttlSeconds:600}") long ttlSeconds) {
+    CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+        .getCacheManager();
+    cacheManager.createCache(UserEntity.class.getName(), region(maxEntries, ttlSeconds));
+    cacheManager.createCache(TodoEntity.class.getName(), region(maxEntries, ttlSeconds));
+    cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+        region(maxEntries, ttlSeconds));
+    // the table timestamps validate cached query results, so they must never be evicted before them
+    cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, region(0, 0));
+    return cacheManager;
+  }
+
+  @Bean
+  HibernatePropertiesCustomizer secondLevelCache(CacheManager hibernateCacheManager) {
+    return properties -> {
+      properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+      properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+      properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+      properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+      properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+    };
+  }
+
+  // maxEntries / ttlSeconds of 0 mean unbounded / no expiry
+  private static CaffeineConfiguration<Object, Object> region(long maxEntries, long ttlSeconds) {
+    CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+    // Hibernate stores immutable disassembled entries, copying them on every access would only cost time
+    configuration.setStoreByValue(false);
+    configuration.setStatisticsEnabled(true);
+    if (maxEntries > 0) {
+      configuration.setMaximumSize(OptionalLong.of(maxEntries));
+    }
+    if (ttlSeconds > 0) {
+      configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+    }
+    return configuration;
+  }
+}
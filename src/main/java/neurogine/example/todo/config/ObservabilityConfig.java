@@ -0,0 +1,32 @@
+package neurogine.example.todo.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Metrics that Boot does not publish on its own; everything is scraped from /actuator/prometheus.
+ * Timers on the service and auth paths are declared where they are measured (@Timed, JwtUtil, TimedPasswordEncoder).
+ */
+@Configuration
+public class ObservabilityConfig {
+
+  @Bean
+  HibernatePropertiesCustomizer statementCounting() {
+    return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCountFilter.Inspector());
+  }
+
+  // ahead of the security chain, so the principal lookup of an authenticated request is counted too
+  @Bean
+  FilterRegistrationBean<StatementCountFilter> statementCountFilter(MeterRegistry meterRegistry) {
+    FilterRegistrationBean<StatementCountFilter> registration =
+        new FilterRegistrationBean<>(new StatementCountFilter(meterRegistry));
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+    return registration;
+  }
+}
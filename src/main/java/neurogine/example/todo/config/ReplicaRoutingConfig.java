@@ -0,0 +1,70 @@
+package neurogine.example.todo.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Read replica (todo.db.replica.enabled): two pools, the primary from spring.datasource.* and the replica from
+ * todo.db.replica.datasource.*, behind a ReplicaRoutingDataSource. JPA, Flyway and everything else that asks for
+ * "the" DataSource get the lazy proxy in front of it.
+ */
+@Configuration
+@ConditionalOnProperty(name = "todo.db.replica.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    dataSource.setPoolName("primary");
+    return dataSource;
+  }
+
+  @Bean
+  @ConfigurationProperties("todo.db.replica.datasource")
+  HikariDataSource replicaDataSource() {
+    HikariDataSource dataSource = new HikariDataSource();
+    dataSource.setPoolName("replica");
+    dataSource.setReadOnly(true);
+    return dataSource;
+  }
+
+  @Bean
+  ReplicaRoutingDataSource routingDataSource(
+      @Qualifier("primaryDataSource") DataSource primary,
+      @Qualifier("replicaDataSource") DataSource replica,
+      @Value("${todo.db.replica.readYourWritesMillis:2000}") long readYourWritesMillis,
+      @Value("${todo.db.replica.maxUsers:100000}") long maxUsers,
+      @Value("${todo.db.replica.healthCheckSeconds:5}") long healthCheckSeconds,
+      @Value("${todo.db.replica.validationTimeoutSeconds:1}") int validationTimeoutSeconds,
+      ObjectProvider<Ticker> ticker,
+      MeterRegistry meterRegistry) {
+    // the read-your-writes clock; tests supply their own Ticker bean to move it
+    return new ReplicaRoutingDataSource(primary, replica, Duration.ofMillis(readYourWritesMillis), maxUsers,
+        Duration.ofSeconds(healthCheckSeconds), validationTimeoutSeconds, ticker.getIfAvailable(Ticker::systemTicker),
+        meterRegistry);
+  }
+
+  @Bean
+  @Primary
+  DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+    return new LazyConnectionDataSourceProxy(routingDataSource);
+  }
+}
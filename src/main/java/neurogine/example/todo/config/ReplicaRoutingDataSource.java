@@ -0,0 +1,194 @@
+package neurogine.example.todo.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary.
+ * Must sit behind a LazyConnectionDataSourceProxy: the transaction manager asks for a connection before the
+ * read-only flag is visible, the proxy only fetches the real one at the first statement.
+ * A user whose write committed less than readYourWrites ago keeps reading from the primary, so they never see
+ * the replica's older copy of their own data. A replica that fails to hand out a connection is marked down
+ * and reads go to the primary until the periodic checkReplica() succeeds again.
+ * Code that must see the latest committed data, whoever wrote it, runs inside onPrimary(): its first statement
+ * in a transaction takes the primary, without suspending the transaction for a second connection.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+  enum Target {
+    PRIMARY, REPLICA
+  }
+
+  private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+  private final DataSource primary;
+  private final DataSource replica;
+  private final Duration healthCheckInterval;
+  private final int validationTimeoutSeconds;
+  private final ScheduledExecutorService healthCheck = Executors.newSingleThreadScheduledExecutor(
+      runnable -> Thread.ofPlatform().daemon().name("todo-replica-health").unstarted(runnable));
+  private final Cache<String, Boolean> recentWriters;
+  private volatile boolean replicaHealthy = true;
+
+  private final Counter replicaReads;
+  private final Counter primaryReads;
+  private final Counter fallbacks;
+
+  public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration readYourWrites, long maxUsers,
+      Duration healthCheckInterval, int validationTimeoutSeconds, Ticker ticker, MeterRegistry meterRegistry) {
+    this.primary = primary;
+    this.replica = replica;
+    this.healthCheckInterval = healthCheckInterval;
+    this.validationTimeoutSeconds = validationTimeoutSeconds;
+    this.recentWriters = Caffeine.newBuilder()
+        .maximumSize(maxUsers)
+        .expireAfterWrite(readYourWrites)
+        .ticker(ticker)
+        .build();
+    setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+    setDefaultTargetDataSource(primary);
+    setLenientFallback(false);
+
+    this.replicaReads = readCounter(meterRegistry, "replica");
+    this.primaryReads = readCounter(meterRegistry, "primary");
+    this.fallbacks = Counter.builder("todo.db.replica.fallback")
+        .description("Read-only transactions sent to the primary because the replica was unavailable")
+        .register(meterRegistry);
+    Gauge.builder("todo.db.replica.healthy", this, ds -> ds.replicaHealthy ? 1 : 0)
+        .register(meterRegistry);
+  }
+
+  private static Counter readCounter(MeterRegistry meterRegistry, String target) {
+    return Counter.builder("todo.db.reads")
+        .description("Read-only transactions by the database that served them")
+        .tag("target", target)
+        .register(meterRegistry);
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    super.afterPropertiesSet();
+    long interval = healthCheckInterval.toMillis();
+    healthCheck.scheduleWithFixedDelay(this::checkReplica, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  public void close() {
+    healthCheck.shutdownNow();
+  }
+
+  /**
+   * Run the lookup with reads routed to the primary; a no-op without a replica
+   */
+  public static <T> T onPrimary(Supplier<T> lookup) {
+    Boolean outer = FORCE_PRIMARY.get();
+    FORCE_PRIMARY.set(Boolean.TRUE);
+    try {
+      return lookup.get();
+    } finally {
+      if (outer == null) {
+        FORCE_PRIMARY.remove();
+      }
+    }
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    // outside a transaction (startup, Flyway, schema validation) everything goes to the primary
+    if (!TransactionSynchronizationManager.isActualTransactionActive() || FORCE_PRIMARY.get() != null) {
+      return Target.PRIMARY;
+    }
+    String user = currentUser();
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      rememberWrite(user);
+      return Target.PRIMARY;
+    }
+    if (!replicaHealthy) {
+      fallbacks.increment();
+      return Target.PRIMARY;
+    }
+    if (user != null && recentWriters.getIfPresent(user) != null) {
+      primaryReads.increment();
+      return Target.PRIMARY;
+    }
+    replicaReads.increment();
+    return Target.REPLICA;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    DataSource target = determineTargetDataSource();
+    if (target != replica) {
+      return target.getConnection();
+    }
+    try {
+      return replica.getConnection();
+    } catch (SQLException e) {
+      logger.warn("Replica unavailable, reading from the primary until the next health check: " + e.getMessage());
+      replicaHealthy = false;
+      fallbacks.increment();
+      return primary.getConnection();
+    }
+  }
+
+  /**
+   * Probe the replica; the only way a replica marked down comes back
+   */
+  public void checkReplica() {
+    boolean healthy;
+    try (Connection connection = replica.getConnection()) {
+      healthy = connection.isValid(validationTimeoutSeconds);
+    } catch (SQLException e) {
+      healthy = false;
+    }
+    if (healthy != replicaHealthy) {
+      logger.info("Replica is " + (healthy ? "back" : "down"));
+    }
+    replicaHealthy = healthy;
+  }
+
+  public boolean isReplicaHealthy() {
+    return replicaHealthy;
+  }
+
+  // the window starts at commit, when the write becomes visible on the primary
+  private void rememberWrite(String user) {
+    if (user == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        if (status == STATUS_COMMITTED) {
+          recentWriters.put(user, Boolean.TRUE);
+        }
+      }
+    });
+  }
+
+  private static String currentUser() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+  }
+}
@@ -2,24 +2,34 @@ package neurogine.example.todo.config;
 
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import neurogine.example.todo.security.JwtRequestFilter;
+import neurogine.example.todo.security.RateLimitFilter;
+import neurogine.example.todo.security.TimedPasswordEncoder;
 import neurogine.example.todo.service.AppUserDetailsService;
 
 @Configuration
@@ -28,21 +38,62 @@ public class SecurityConfig {
 
   private final AppUserDetailsService appUserDetailsService;
   private final JwtRequestFilter jwtRequestFilter;
+  private final RateLimitFilter rateLimitFilter;
+
+  private static final String ACTUATOR_ROLE = "ACTUATOR";
   
+  /**
+   * Actuator endpoints other than health expose server-wide metrics, so user tokens do not open them:
+   * a scraper authenticates with HTTP Basic as todo.actuator.username / todo.actuator.password.
+   * Without a password no scrape credential exists and only /actuator/health answers.
+   */
+  @Bean
+  @Order(1)
+  public SecurityFilterChain actuatorFilterChain(HttpSecurity httpSecurity, PasswordEncoder passwordEncoder,
+      @Value("${todo.actuator.username:prometheus}") String username,
+      @Value("${todo.actuator.password:}") String password) throws Exception {
+    InMemoryUserDetailsManager scrapers = new InMemoryUserDetailsManager();
+    if (!password.isBlank()) {
+      scrapers.createUser(User.withUsername(username)
+          .password(passwordEncoder.encode(password))
+          .roles(ACTUATOR_ROLE)
+          .build());
+    }
+    DaoAuthenticationProvider provider = new DaoAuthenticationProvider(scrapers);
+    provider.setPasswordEncoder(passwordEncoder);
+
+    httpSecurity.securityMatcher("/actuator/**")
+        .csrf(AbstractHttpConfigurer::disable)
+        .authorizeHttpRequests(auth -> auth.requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+            .anyRequest().hasRole(ACTUATOR_ROLE))
+        .httpBasic(Customizer.withDefaults())
+        .authenticationManager(new ProviderManager(provider))
+        .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
+    return httpSecurity.build();
+  }
+
   @Bean
   public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity) throws Exception {
        httpSecurity.cors(Customizer.withDefaults())
           .csrf(AbstractHttpConfigurer::disable)
-          .authorizeHttpRequests(auth -> auth.requestMatchers("/status", "/health", "/register", "/activate", "/login", "/profile").permitAll()
+          // POST /logout is UserController's token revocation, not the session LogoutFilter
+          .logout(AbstractHttpConfigurer::disable)
+          // async dispatches (CompletableFuture, StreamingResponseBody) resume a request that was already authorized
+          .authorizeHttpRequests(auth -> auth.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+              .requestMatchers("/status", "/health", "/register", "/activate", "/login", "/token/refresh", "/profile").permitAll()
               .anyRequest().authenticated())
               .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-              .addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class);
+              .addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class)
+              // after authentication so buckets are keyed by user rather than by address
+              .addFilterAfter(rateLimitFilter, JwtRequestFilter.class);
     return httpSecurity.build();       
   }
 
+  // hashes below the configured strength are upgraded on the next successful login (AppUserDetailsService)
   @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+  public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+      @Value("${todo.auth.bcryptStrength:10}") int strength) {
+    return new TimedPasswordEncoder(new BCryptPasswordEncoder(strength), meterRegistry);
   }
 
   @Bean
@@ -58,9 +109,10 @@ public class SecurityConfig {
   }
 
   @Bean
-  public AuthenticationManager authenticationManager(HttpSecurity httpSecurity) throws Exception {
+  public AuthenticationManager authenticationManager(HttpSecurity httpSecurity, PasswordEncoder passwordEncoder)
+      throws Exception {
     AuthenticationManagerBuilder builder = httpSecurity.getSharedObject(AuthenticationManagerBuilder.class);
-    builder.userDetailsService(appUserDetailsService).passwordEncoder(passwordEncoder());
+    builder.userDetailsService(appUserDetailsService).passwordEncoder(passwordEncoder);
     return builder.build();
   }
 }
@@ -0,0 +1,27 @@
+package neurogine.example.todo.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import tools.jackson.databind.JacksonModule;
+import tools.jackson.module.blackbird.BlackbirdModule;
+
+/**
+ * Wire formats for the REST API.
+ * JSON stays the default; clients sending Accept: application/cbor get the same documents as CBOR
+ * (binary lengths and numbers instead of quoted, escaped text).
+ * The CBOR converter is Spring's default one, registered because jackson-dataformat-cbor is present.
+ * Both mappers use Blackbird, which replaces reflective getter/setter calls with generated lambdas: the JSON
+ * mapper through the bean below, the CBOR converter's own mapper through module discovery.
+ * Both formats carry the same fields, nulls included.
+ * Response compression is configured in application.properties (server.compression.*).
+ */
+@Configuration
+public class SerializationConfig {
+
+  // picked up by Boot's auto-configured JsonMapper
+  @Bean
+  JacksonModule blackbirdModule() {
+    return new BlackbirdModule();
+  }
+}
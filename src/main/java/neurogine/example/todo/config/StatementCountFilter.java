@@ -0,0 +1,65 @@
+package neurogine.example.todo.config;
+
+import java.io.IOException;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * SQL statements prepared per request, recorded as the todo.http.statements summary by method and URI pattern.
+ * Statements are counted on the request thread, so work handed to another thread (the async endpoints,
+ * streamed NDJSON bodies) is not attributed to the request.
+ */
+public class StatementCountFilter extends OncePerRequestFilter {
+
+  private static final ThreadLocal<int[]> STATEMENTS = new ThreadLocal<>();
+
+  private final MeterRegistry meterRegistry;
+
+  public StatementCountFilter(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    int[] statements = new int[1];
+    STATEMENTS.set(statements);
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      STATEMENTS.remove();
+      Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+      DistributionSummary.builder("todo.http.statements")
+          .description("SQL statements prepared per request")
+          .tag("method", request.getMethod())
+          .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+          .register(meterRegistry)
+          .record(statements[0]);
+    }
+  }
+
+  /**
+   * Registered with Hibernate (hibernate.session_factory.statement_inspector); counts every prepared statement
+   * against the request running on the current thread
+   */
+  public static class Inspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+      int[] statements = STATEMENTS.get();
+      if (statements != null) {
+        statements[0]++;
+      }
+      return sql;
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package neurogine.example.todo.controller;
+
+import lombok.RequiredArgsConstructor;
+import neurogine.example.todo.dto.TodoPageDTO;
+import neurogine.example.todo.enums.TodoStatus;
+import neurogine.example.todo.service.TodoAsyncService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Async variants of the heavy read endpoints for long-polling clients.
+ * The servlet thread is released while the query runs on the todoReadExecutor;
+ * responses are identical to their /todos counterparts.
+ */
+@RestController
+@RequestMapping("/todos/async")
+@RequiredArgsConstructor
+public class TodoAsyncController {
+
+  private final TodoAsyncService todoAsyncService;
+
+  /**
+   * GET /todos/async?status=...&cursor=...&size=...
+   */
+  @GetMapping
+  public CompletableFuture<ResponseEntity<TodoPageDTO>> getAllTodos(
+    @RequestParam(required = false) TodoStatus status,
+    @RequestParam(required = false) String cursor,
+    @RequestParam(required = false) Integer size
+  ) {
+    return todoAsyncService.getTodos(status, cursor, size).thenApply(ResponseEntity::ok);
+  }
+
+  /**
+   * GET /todos/async/search?keyword=...&cursor=...&size=...
+   */
+  @GetMapping("/search")
+  public CompletableFuture<ResponseEntity<TodoPageDTO>> searchTodos(
+    @RequestParam String keyword,
+    @RequestParam(required = false) String cursor,
+    @RequestParam(required = false) Integer size
+  ) {
+    return todoAsyncService.searchTodos(keyword, cursor, size).thenApply(ResponseEntity::ok);
+  }
+
+  /**
+   * GET /todos/async/statistics
+   */
+  @GetMapping("/statistics")
+  public CompletableFuture<ResponseEntity<Map<String, Long>>> getStatistics() {
+    return todoAsyncService.getStatistics().thenApply(ResponseEntity::ok);
+  }
+}
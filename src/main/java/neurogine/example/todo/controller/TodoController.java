@@ -1,13 +1,38 @@
 package neurogine.example.todo.controller;
 
 import lombok.RequiredArgsConstructor;
+import neurogine.example.todo.dto.TodoBatchRequestDTO;
+import neurogine.example.todo.dto.TodoBatchResultDTO;
+import neurogine.example.todo.dto.TodoChangesDTO;
 import neurogine.example.todo.dto.TodoDTO;
+import neurogine.example.todo.dto.TodoPageDTO;
 import neurogine.example.todo.enums.TodoStatus;
+import neurogine.example.todo.event.TodoEventBroker;
+import neurogine.example.todo.exception.TodoConflictException;
+import neurogine.example.todo.repository.TodoVersion;
 import neurogine.example.todo.service.TodoService;
+import neurogine.example.todo.service.TodoSyncService;
+import neurogine.example.todo.service.TodoSyncService.Versioned;
+import neurogine.example.todo.util.TodoETags;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Map;
 
@@ -15,8 +40,14 @@ import java.util.Map;
 @RequestMapping("/todos")
 @RequiredArgsConstructor
 public class TodoController {
+
+  // per-user data: browsers and proxies may store it but must revalidate with the ETag
+  private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
   
   private final TodoService todoService;
+  private final JsonMapper jsonMapper;
+  private final TodoEventBroker todoEventBroker;
+  private final TodoSyncService todoSyncService;
 
   /**
    * Create a new todo
@@ -29,21 +60,82 @@ public class TodoController {
   }
 
   /**
-   * Get all todos (optionally filter by status)
-   * GET /todos
-   * GET /todos?status=COMPLETED
+   * Apply many creates, updates, status changes and deletes in one transaction
+   * POST /todos/batch
+   * Body: { "create": [...], "update": [{ "id": 1, ... }], "status": [{ "id": 2, "status": "COMPLETED" }], "delete": [3, 4] }
+   */
+  @PostMapping("/batch")
+  public ResponseEntity<List<TodoBatchResultDTO>> applyBatch(@RequestBody TodoBatchRequestDTO request) {
+    List<TodoBatchResultDTO> results = todoService.applyBatch(request);
+    return ResponseEntity.ok(results);
+  }
+
+  /**
+   * Get todos page by page (optionally filter by status)
+   * GET /todos?size=50
+   * GET /todos?status=COMPLETED&cursor=...
    */
   @GetMapping
-  public ResponseEntity<List<TodoDTO>> getAllTodos(
-    @RequestParam(required = false) TodoStatus status
+  public ResponseEntity<TodoPageDTO> getAllTodos(
+    @RequestParam(required = false) TodoStatus status,
+    @RequestParam(required = false) String cursor,
+    @RequestParam(required = false) Integer size,
+    WebRequest webRequest
   ) {
-    List<TodoDTO> todos;
-    if (status != null) {
-      todos = todoService.getTodosByStatus(status);
-    } else {
-      todos = todoService.getAllTodos();
+    // tag and page come from one transaction, so from the same database
+    Versioned<TodoPageDTO> todos = todoSyncService.readVersioned(version -> {
+      if (webRequest.checkNotModified(TodoETags.forCollection("todos", version, status, cursor, size))) {
+        return null;
+      }
+      if (status != null) {
+        return todoService.getTodosByStatus(status, cursor, size);
+      }
+      return todoService.getTodos(cursor, size);
+    });
+    if (todos.value() == null) {
+      return null;
     }
-    return ResponseEntity.ok(todos);
+    String etag = TodoETags.forCollection("todos", todos.version(), status, cursor, size);
+    return ResponseEntity.ok().cacheControl(REVALIDATE).eTag(etag).varyBy(HttpHeaders.ACCEPT).body(todos.value());
+  }
+
+  /**
+   * Stream all todos as NDJSON, one line per todo
+   * GET /todos?stream=true
+   * GET /todos?stream=true&status=COMPLETED
+   */
+  @GetMapping(params = "stream=true")
+  public ResponseEntity<StreamingResponseBody> streamTodos(
+    @RequestParam(required = false) TodoStatus status
+  ) {
+    Long userId = todoService.getCurrentUserId();
+    StreamingResponseBody body = out -> todoService.streamTodos(userId, status, false, todo -> writeLine(out, todo));
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+  }
+
+  /**
+   * Server-sent change feed of the current user's todos (created, updated, status, favorite, deleted)
+   * GET /todos/events
+   * Reconnects resume after the Last-Event-ID header; a "resync" event means reload GET /todos
+   */
+  @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter events(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+    return todoEventBroker.subscribe(todoService.getCurrentUserId(), lastEventId);
+  }
+
+  /**
+   * Incremental sync: todos changed and deleted since the cursor of the previous call
+   * GET /todos/changes (initial sync, every todo)
+   * GET /todos/changes?since=...&size=...
+   * Keep calling with the returned cursor while hasMore is true
+   */
+  @GetMapping("/changes")
+  public ResponseEntity<TodoChangesDTO> getChanges(
+    @RequestParam(required = false) String since,
+    @RequestParam(required = false) Integer size
+  ) {
+    TodoChangesDTO changes = todoSyncService.getChanges(since, size);
+    return ResponseEntity.ok(changes);
   }
 
   /**
@@ -51,22 +143,31 @@ public class TodoController {
    * GET /todos/{id}
    */
   @GetMapping("/{id}")
-  public ResponseEntity<TodoDTO> getTodoById(@PathVariable Long id) {
+  public ResponseEntity<TodoDTO> getTodoById(@PathVariable Long id, WebRequest webRequest) {
+    TodoVersion current = todoService.getTodoVersion(id);
+    if (current != null
+        && webRequest.checkNotModified(TodoETags.forTodo(id, current.getVersion(), accept()),
+          lastModified(current.getUpdatedAt()))) {
+      return null;
+    }
     TodoDTO todo = todoService.getTodoById(id);
-    return ResponseEntity.ok(todo);
+    return withETag(ResponseEntity.ok(), todo);
   }
 
   /**
    * Update todo (title, description, status, icon)
    * PUT /todos/{id}
+   * Send the version you read (body "version" or If-Match: the ETag) to get 409 / 412 instead of
+   * overwriting someone else's change
    */
   @PutMapping("/{id}")
   public ResponseEntity<TodoDTO> updateTodo(
     @PathVariable Long id,
-    @RequestBody TodoDTO todoDTO
+    @RequestBody TodoDTO todoDTO,
+    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
   ) {
-    TodoDTO updated = todoService.updateTodo(id, todoDTO);
-    return ResponseEntity.ok(updated);
+    TodoDTO updated = todoService.updateTodo(id, todoDTO, TodoETags.expectedVersion(ifMatch, id));
+    return withETag(ResponseEntity.ok(), updated);
   }
 
   /**
@@ -77,11 +178,12 @@ public class TodoController {
   @PatchMapping("/{id}/status")
   public ResponseEntity<TodoDTO> updateStatus(
     @PathVariable Long id,
-    @RequestBody Map<String, String> body
+    @RequestBody Map<String, String> body,
+    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
   ) {
     TodoStatus newStatus = TodoStatus.valueOf(body.get("status"));
-    TodoDTO updated = todoService.updateStatus(id, newStatus);
-    return ResponseEntity.ok(updated);
+    TodoDTO updated = todoService.updateStatus(id, newStatus, TodoETags.expectedVersion(ifMatch, id));
+    return withETag(ResponseEntity.ok(), updated);
   }
 
   /**
@@ -89,9 +191,12 @@ public class TodoController {
    * PATCH /todos/{id}/start
    */
   @PatchMapping("/{id}/start")
-  public ResponseEntity<TodoDTO> startTodo(@PathVariable Long id) {
-    TodoDTO updated = todoService.startTodo(id);
-    return ResponseEntity.ok(updated);
+  public ResponseEntity<TodoDTO> startTodo(
+    @PathVariable Long id,
+    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+  ) {
+    TodoDTO updated = todoService.startTodo(id, TodoETags.expectedVersion(ifMatch, id));
+    return withETag(ResponseEntity.ok(), updated);
   }
 
   /**
@@ -99,9 +204,12 @@ public class TodoController {
    * PATCH /todos/{id}/complete
    */
   @PatchMapping("/{id}/complete")
-  public ResponseEntity<TodoDTO> completeTodo(@PathVariable Long id) {
-    TodoDTO updated = todoService.completeTodo(id);
-    return ResponseEntity.ok(updated);
+  public ResponseEntity<TodoDTO> completeTodo(
+    @PathVariable Long id,
+    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+  ) {
+    TodoDTO updated = todoService.completeTodo(id, TodoETags.expectedVersion(ifMatch, id));
+    return withETag(ResponseEntity.ok(), updated);
   }
 
   /**
@@ -109,9 +217,12 @@ public class TodoController {
    * PATCH /todos/{id}/reopen
    */
   @PatchMapping("/{id}/reopen")
-  public ResponseEntity<TodoDTO> reopenTodo(@PathVariable Long id) {
-    TodoDTO updated = todoService.reopenTodo(id);
-    return ResponseEntity.ok(updated);
+  public ResponseEntity<TodoDTO> reopenTodo(
+    @PathVariable Long id,
+    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+  ) {
+    TodoDTO updated = todoService.reopenTodo(id, TodoETags.expectedVersion(ifMatch, id));
+    return withETag(ResponseEntity.ok(), updated);
   }
 
   /**
@@ -129,28 +240,49 @@ public class TodoController {
    * PATCH /todos/{id}/favorite
    */
   @PatchMapping("/{id}/favorite")
-  public ResponseEntity<TodoDTO> toggleFavorite(@PathVariable Long id) {
-    TodoDTO updated = todoService.toggleFavorite(id);
-    return ResponseEntity.ok(updated);
+  public ResponseEntity<TodoDTO> toggleFavorite(
+    @PathVariable Long id,
+    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+  ) {
+    TodoDTO updated = todoService.toggleFavorite(id, TodoETags.expectedVersion(ifMatch, id));
+    return withETag(ResponseEntity.ok(), updated);
   }
 
   /**
-   * Get all favorite todos
-   * GET /todos/favorites
+   * Get favorite todos page by page
+   * GET /todos/favorites?cursor=...&size=...
    */
   @GetMapping("/favorites")
-  public ResponseEntity<List<TodoDTO>> getFavoriteTodos() {
-    List<TodoDTO> favorites = todoService.getFavoriteTodos();
+  public ResponseEntity<TodoPageDTO> getFavoriteTodos(
+    @RequestParam(required = false) String cursor,
+    @RequestParam(required = false) Integer size
+  ) {
+    TodoPageDTO favorites = todoService.getFavoriteTodos(cursor, size);
     return ResponseEntity.ok(favorites);
   }
 
   /**
-   * Search todos by keyword
-   * GET /todos/search?keyword=...
+   * Stream favorite todos as NDJSON
+   * GET /todos/favorites?stream=true
+   */
+  @GetMapping(value = "/favorites", params = "stream=true")
+  public ResponseEntity<StreamingResponseBody> streamFavoriteTodos() {
+    Long userId = todoService.getCurrentUserId();
+    StreamingResponseBody body = out -> todoService.streamTodos(userId, null, true, todo -> writeLine(out, todo));
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+  }
+
+  /**
+   * Search todos by keyword, best match first
+   * GET /todos/search?keyword=...&cursor=...&size=...
    */
   @GetMapping("/search")
-  public ResponseEntity<List<TodoDTO>> searchTodos(@RequestParam String keyword) {
-    List<TodoDTO> todos = todoService.searchTodos(keyword);
+  public ResponseEntity<TodoPageDTO> searchTodos(
+    @RequestParam String keyword,
+    @RequestParam(required = false) String cursor,
+    @RequestParam(required = false) Integer size
+  ) {
+    TodoPageDTO todos = todoService.searchTodos(keyword, cursor, size);
     return ResponseEntity.ok(todos);
   }
 
@@ -159,8 +291,63 @@ public class TodoController {
    * GET /todos/statistics
    */
   @GetMapping("/statistics")
-  public ResponseEntity<Map<String, Long>> getStatistics() {
-    Map<String, Long> stats = todoService.getStatistics();
-    return ResponseEntity.ok(stats);
+  public ResponseEntity<Map<String, Long>> getStatistics(WebRequest webRequest) {
+    // version and counters sit on the same sync counter row, read once in one transaction
+    Versioned<Map<String, Long>> stats = todoSyncService.readVersioned(version ->
+      webRequest.checkNotModified(TodoETags.forCollection("statistics", version)) ? null : todoService.getStatistics());
+    if (stats.value() == null) {
+      return null;
+    }
+    String etag = TodoETags.forCollection("statistics", stats.version());
+    return ResponseEntity.ok().cacheControl(REVALIDATE).eTag(etag).varyBy(HttpHeaders.ACCEPT).body(stats.value());
+  }
+
+  /**
+   * Write based on a stale version: 412 when the client sent If-Match, 409 for a stale body version.
+   * Either way the body is the current todo, so the client can merge and retry without another read.
+   */
+  @ExceptionHandler(TodoConflictException.class)
+  public ResponseEntity<TodoDTO> handleConflict(TodoConflictException ex, WebRequest webRequest) {
+    HttpStatus status = webRequest.getHeader(HttpHeaders.IF_MATCH) != null
+      ? HttpStatus.PRECONDITION_FAILED
+      : HttpStatus.CONFLICT;
+    return withETag(ResponseEntity.status(status), ex.getCurrent());
+  }
+
+  /**
+   * A batch kept losing version races after its retries
+   */
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  public ResponseEntity<Map<String, String>> handleOptimisticLockFailure(OptimisticLockingFailureException ex) {
+    return ResponseEntity.status(HttpStatus.CONFLICT)
+      .body(Map.of("message", "Todos were modified concurrently, please retry"));
+  }
+
+  // the same todo goes out as JSON or CBOR: the tag names the representation and caches key on Accept
+  private static ResponseEntity<TodoDTO> withETag(ResponseEntity.BodyBuilder response, TodoDTO todo) {
+    return response
+      .cacheControl(REVALIDATE)
+      .eTag(TodoETags.forTodo(todo.getId(), todo.getVersion(), accept()))
+      .varyBy(HttpHeaders.ACCEPT)
+      .lastModified(lastModified(todo.getUpdatedAt()))
+      .body(todo);
+  }
+
+  private static String accept() {
+    return ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest()
+      .getHeader(HttpHeaders.ACCEPT);
+  }
+
+  private static long lastModified(LocalDateTime updatedAt) {
+    return updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+
+  private void writeLine(OutputStream out, TodoDTO todo) {
+    try {
+      out.write(jsonMapper.writeValueAsBytes(todo));
+      out.write('\n');
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
   }
 }
\ No newline at end of file
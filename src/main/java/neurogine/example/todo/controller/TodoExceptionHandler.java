@@ -0,0 +1,32 @@
+package neurogine.example.todo.controller;
+
+import java.util.Map;
+
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import neurogine.example.todo.exception.InvalidCursorException;
+
+/**
+ * Errors shared by the synchronous and async todo endpoints
+ */
+@RestControllerAdvice(assignableTypes = { TodoController.class, TodoAsyncController.class })
+public class TodoExceptionHandler {
+
+  @ExceptionHandler(InvalidCursorException.class)
+  public ResponseEntity<Map<String, String>> handleInvalidCursor(InvalidCursorException ex) {
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", ex.getMessage()));
+  }
+
+  // the read executor is saturated: shed the request like a full login queue instead of failing with 500
+  @ExceptionHandler(TaskRejectedException.class)
+  public ResponseEntity<Map<String, String>> handleRejected(TaskRejectedException ex) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(Map.of("message", "Too many requests in progress, retry shortly"));
+  }
+}
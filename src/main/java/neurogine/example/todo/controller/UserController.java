@@ -1,17 +1,22 @@
 package neurogine.example.todo.controller;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 import lombok.RequiredArgsConstructor;
 
 import neurogine.example.todo.dto.AuthDTO;
 import neurogine.example.todo.dto.UserDTO;
+import neurogine.example.todo.service.LoginService;
 import neurogine.example.todo.service.UserService;
 
 @RestController
@@ -19,6 +24,7 @@ import neurogine.example.todo.service.UserService;
 public class UserController {
 
   private final UserService userService;
+  private final LoginService loginService;
   
   /**
    * Register a new user account
@@ -33,20 +39,57 @@ public class UserController {
     return ResponseEntity.status(HttpStatus.CREATED).body(registeredUser);
   }
 
+  /**
+   * Login runs on the bounded login executor; the request thread is released while BCrypt works.
+   * When the login queue is full the request is shed with 503 and Retry-After instead of queueing.
+   */
   @PostMapping("/login")
-  public ResponseEntity<Map<String, Object>> login(@RequestBody AuthDTO authDTO) {
+  public CompletableFuture<ResponseEntity<Map<String, Object>>> login(@RequestBody AuthDTO authDTO) {
+    // we already set the isActive to true during registration
+    // if(!userService.isAccountActive(authDTO.getEmail())) {
+    //   return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", "Account is not active"));
+    // }
+    try {
+      return loginService.login(authDTO)
+        .thenApply(ResponseEntity::ok)
+        .exceptionally(e -> ResponseEntity.status(HttpStatus.BAD_REQUEST)
+          .body(Map.of("message", "Invalid email or password")));
+    } catch (TaskRejectedException e) {
+      return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(Map.of("message", "Too many logins, retry shortly")));
+    }
+  }
+
+  /**
+   * Exchange a refresh token for a new access token (and a new refresh token)
+   * POST /token/refresh
+   * Body: { "refreshToken": "..." }
+   */
+  @PostMapping("/token/refresh")
+  public ResponseEntity<Map<String, Object>> refreshToken(@RequestBody Map<String, String> body) {
     try {
-      // we already set the isActive to true during registration
-      // if(!userService.isAccountActive(authDTO.getEmail())) {
-      //   return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", "Account is not active"));
-      // }
-      Map<String, Object> response = userService.authenticateAndGenerateToken(authDTO);
-      return ResponseEntity.ok(response);
+      return ResponseEntity.ok(userService.refreshToken(body.get("refreshToken")));
     } catch (Exception e) {
-      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", "Invalid email or password"));
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Invalid refresh token"));
     }
   }
 
+  /**
+   * Revoke the current access token and, optionally, the refresh token
+   * POST /logout
+   * Body (optional): { "refreshToken": "..." }
+   */
+  @PostMapping("/logout")
+  public ResponseEntity<Void> logout(
+    @RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+    @RequestBody(required = false) Map<String, String> body
+  ) {
+    String accessToken = authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+    userService.logout(accessToken, body != null ? body.get("refreshToken") : null);
+    return ResponseEntity.noContent().build();
+  }
+
   @GetMapping("/profile")
   public ResponseEntity<UserDTO> getProfile() {
     UserDTO userDTO = userService.getUserProfile(null);
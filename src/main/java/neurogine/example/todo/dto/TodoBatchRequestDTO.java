@@ -0,0 +1,24 @@
+package neurogine.example.todo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoBatchRequestDTO {
+
+  // new todos, same fields as POST /todos
+  private List<TodoDTO> create;
+  // partial updates, id required (same fields as PUT /todos/{id})
+  private List<TodoDTO> update;
+  // status transitions, id and status required
+  private List<TodoDTO> status;
+  // ids to delete
+  private List<Long> delete;
+}
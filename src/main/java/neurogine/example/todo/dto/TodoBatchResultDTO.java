@@ -0,0 +1,22 @@
+package neurogine.example.todo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoBatchResultDTO {
+
+  // create, update, status or delete
+  private String operation;
+  // position of the item in its request array
+  private Integer index;
+  private Long id;
+  private Boolean success;
+  private String error;
+  private TodoDTO todo;
+}
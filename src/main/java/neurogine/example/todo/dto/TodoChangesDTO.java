@@ -0,0 +1,23 @@
+package neurogine.example.todo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoChangesDTO {
+
+  // created or updated since the cursor, current state
+  private List<TodoDTO> changed;
+  // ids deleted since the cursor
+  private List<Long> deleted;
+  // pass back as ?since=... on the next sync, also when hasMore is false
+  private String cursor;
+  private Boolean hasMore;
+}
@@ -24,4 +24,6 @@ public class TodoDTO {
   private String username;
   private LocalDateTime createdAt;
   private LocalDateTime updatedAt;
+  // optimistic-locking version; send it back on PUT to reject writes based on a stale copy
+  private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package neurogine.example.todo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoPageDTO {
+
+  private List<TodoDTO> items;
+  // opaque cursor to pass back as ?cursor=..., null on the last page
+  private String nextCursor;
+  private Boolean hasNext;
+}
@@ -0,0 +1,80 @@
+package neurogine.example.todo.entity;
+
+import java.util.Map;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import neurogine.example.todo.enums.TodoStatus;
+
+/**
+ * Per-user sync version and todo counters. Writers lock this row until commit, so versions become visible
+ * in order and a client cursor never skips a change, whatever the clocks say.
+ * The counters behind GET /todos/statistics change in the same transaction as the todos they count,
+ * so they always match the version stored next to them.
+ */
+@Entity
+@Table(name = "sync_counters")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncCounterEntity {
+
+  @Id
+  @Column(name = "user_id")
+  private Long userId;
+
+  @Column(nullable = false)
+  private Long version;
+
+  @Column(name = "new_count", nullable = false)
+  private long newCount;
+
+  @Column(name = "in_progress_count", nullable = false)
+  private long inProgressCount;
+
+  @Column(name = "completed_count", nullable = false)
+  private long completedCount;
+
+  @Column(name = "favorite_count", nullable = false)
+  private long favoriteCount;
+
+  // set once the counters were recomputed in the current transaction; they then already include every change
+  @Transient
+  private boolean recounted;
+
+  public SyncCounterEntity(Long userId, Long version) {
+    this.userId = userId;
+    this.version = version;
+  }
+
+  /**
+   * Add delta todos in the given status (none when status is null) and favoriteDelta favorites
+   */
+  public void addCounts(TodoStatus status, long delta, long favoriteDelta) {
+    if (status != null) {
+      switch (status) {
+        case NEW -> newCount += delta;
+        case IN_PROGRESS -> inProgressCount += delta;
+        case COMPLETED -> completedCount += delta;
+      }
+    }
+    favoriteCount += favoriteDelta;
+  }
+
+  public Map<String, Long> statistics() {
+    return Map.of(
+        "new", newCount,
+        "inProgress", inProgressCount,
+        "completed", completedCount,
+        "total", newCount + inProgressCount + completedCount,
+        "favorites", favoriteCount);
+  }
+}
@@ -0,0 +1,39 @@
+package neurogine.example.todo.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Change log behind GET /todos/changes: one row per todo holding the user's sync version of its last change.
+ * Deleted todos keep their row as a tombstone (deleted = true), so deletes reach offline clients too.
+ */
+@Entity
+@Table(name = "todo_sync", indexes = {
+    @Index(name = "idx_todo_sync_user_version", columnList = "user_id, version, todo_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoSyncEntity {
+
+  @Id
+  @Column(name = "todo_id")
+  private Long todoId;
+
+  @Column(name = "user_id", nullable = false)
+  private Long userId;
+
+  @Column(nullable = false)
+  private Long version;
+
+  @Column(nullable = false)
+  private Boolean deleted;
+}
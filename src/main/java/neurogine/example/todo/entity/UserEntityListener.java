@@ -0,0 +1,32 @@
+package neurogine.example.todo.entity;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import neurogine.example.todo.security.PrincipalCache;
+import neurogine.example.todo.security.TokenRevocations;
+
+/**
+ * Keeps the principal cache consistent with the users table.
+ * Any update (deactivation, password change) or removal evicts the cached principal, now and again
+ * after commit, and revokes the user's tokens issued so far. Hash upgrades on login bypass this (bulk update), since the
+ * password itself did not change.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserEntityListener {
+
+  // resolved lazily: listeners are created while the EntityManagerFactory is still being built
+  private final ObjectProvider<PrincipalCache> principalCache;
+  private final ObjectProvider<TokenRevocations> tokenRevocations;
+
+  @PostUpdate
+  @PostRemove
+  public void evict(UserEntity user) {
+    principalCache.getObject().invalidate(user.getEmail());
+    tokenRevocations.getObject().revokeAll(user.getEmail());
+  }
+}
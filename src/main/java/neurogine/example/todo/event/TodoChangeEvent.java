@@ -0,0 +1,32 @@
+package neurogine.example.todo.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import neurogine.example.todo.dto.TodoDTO;
+import neurogine.example.todo.enums.TodoStatus;
+
+/**
+ * Published by TodoService for every todo mutation; listeners receive it once the transaction commits.
+ * {@code todo} is the state after the change, null for deletes.
+ * {@code previousStatus} / {@code previousFavorite} are the state before it (null for creates), used for the
+ * statistics counters and not sent to clients.
+ */
+public record TodoChangeEvent(Type type, Long userId, Long todoId, TodoDTO todo,
+    @JsonIgnore TodoStatus previousStatus, @JsonIgnore Boolean previousFavorite) {
+
+  public enum Type {
+    CREATED, UPDATED, STATUS, FAVORITE, DELETED
+  }
+
+  public static TodoChangeEvent of(Type type, TodoDTO todo) {
+    return new TodoChangeEvent(type, todo.getUserId(), todo.getId(), todo, null, null);
+  }
+
+  public static TodoChangeEvent of(Type type, TodoDTO todo, TodoStatus previousStatus, Boolean previousFavorite) {
+    return new TodoChangeEvent(type, todo.getUserId(), todo.getId(), todo, previousStatus, previousFavorite);
+  }
+
+  public static TodoChangeEvent deleted(Long userId, Long todoId, TodoStatus previousStatus, Boolean previousFavorite) {
+    return new TodoChangeEvent(Type.DELETED, userId, todoId, null, previousStatus, previousFavorite);
+  }
+}
@@ -0,0 +1,248 @@
+package neurogine.example.todo.event;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-process fan-out of TodoChangeEvents to the SSE subscribers of GET /todos/events.
+ *
+ * Every subscriber owns a small bounded queue drained by a virtual thread only while it has events,
+ * so idle connections hold no thread. A subscriber that falls behind has its queue dropped and
+ * gets a single "resync" event, after which the client reloads instead of replaying.
+ * The last events of each user are kept in a ring buffer so a reconnect with Last-Event-ID
+ * resumes without a reload; when the gap is no longer covered, "resync" is sent as well.
+ */
+@Component
+public class TodoEventBroker {
+
+  static final String RESYNC = "resync";
+
+  @Value("${todo.events.bufferSize:64}")
+  private int bufferSize;
+
+  @Value("${todo.events.replaySize:256}")
+  private int replaySize;
+
+  @Value("${todo.events.replayIdleMinutes:10}")
+  private long replayIdleMinutes;
+
+  @Value("${todo.events.timeoutMinutes:30}")
+  private long timeoutMinutes;
+
+  @Value("${todo.events.heartbeatSeconds:25}")
+  private long heartbeatSeconds;
+
+  // seeded from the clock so ids keep increasing across restarts and stale Last-Event-IDs are detected
+  private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis() * 1000);
+  private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+  private final ExecutorService delivery = Executors.newVirtualThreadPerTaskExecutor();
+  private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(
+      runnable -> Thread.ofPlatform().daemon().name("todo-events-heartbeat").unstarted(runnable));
+  private Cache<Long, ReplayBuffer> replay;
+
+  @PostConstruct
+  void init() {
+    replay = Caffeine.newBuilder()
+        .expireAfterAccess(Duration.ofMinutes(replayIdleMinutes))
+        .build();
+    heartbeat.scheduleAtFixedRate(this::sendHeartbeats, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    heartbeat.shutdownNow();
+    subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+    delivery.shutdown();
+  }
+
+  /**
+   * Open a stream for the user; missed events after lastEventId are replayed first when still buffered
+   */
+  public SseEmitter subscribe(Long userId, String lastEventId) {
+    return subscribe(userId, lastEventId, new SseEmitter(Duration.ofMinutes(timeoutMinutes).toMillis()));
+  }
+
+  SseEmitter subscribe(Long userId, String lastEventId, SseEmitter emitter) {
+    Subscriber subscriber = new Subscriber(userId, emitter);
+    emitter.onCompletion(() -> unsubscribe(subscriber));
+    emitter.onTimeout(() -> unsubscribe(subscriber));
+    emitter.onError(error -> unsubscribe(subscriber));
+
+    ReplayBuffer buffer = replayBuffer(userId);
+    // under the buffer lock no event can be published between the replay and the registration
+    synchronized (buffer) {
+      if (lastEventId != null && !lastEventId.isBlank()) {
+        buffer.replayTo(subscriber, parseEventId(lastEventId));
+      }
+      subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+    }
+    return emitter;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onTodoChanged(TodoChangeEvent event) {
+    ReplayBuffer buffer = replayBuffer(event.userId());
+    synchronized (buffer) {
+      Event sse = new Event(sequence.incrementAndGet(), event.type().name().toLowerCase(), event);
+      buffer.add(sse);
+      subscribers.getOrDefault(event.userId(), Set.of()).forEach(subscriber -> subscriber.offer(sse));
+    }
+  }
+
+  public int subscriberCount() {
+    return subscribers.values().stream().mapToInt(Set::size).sum();
+  }
+
+  private ReplayBuffer replayBuffer(Long userId) {
+    return replay.get(userId, id -> new ReplayBuffer(sequence.get()));
+  }
+
+  private void unsubscribe(Subscriber subscriber) {
+    subscribers.computeIfPresent(subscriber.userId, (id, set) -> {
+      set.remove(subscriber);
+      return set.isEmpty() ? null : set;
+    });
+  }
+
+  private void sendHeartbeats() {
+    subscribers.values().forEach(set -> set.forEach(Subscriber::heartbeat));
+  }
+
+  private static long parseEventId(String lastEventId) {
+    try {
+      return Long.parseLong(lastEventId.trim());
+    } catch (NumberFormatException e) {
+      // unknown id, treat as a gap
+      return -1;
+    }
+  }
+
+  /**
+   * One server-sent event; data == null marks a heartbeat comment
+   */
+  private record Event(long id, String name, Object data) {
+  }
+
+  /**
+   * Last events of one user; {@code floor} is the newest id that can no longer be replayed
+   */
+  private final class ReplayBuffer {
+
+    private final ArrayDeque<Event> events = new ArrayDeque<>();
+    private long floor;
+
+    ReplayBuffer(long floor) {
+      this.floor = floor;
+    }
+
+    // callers hold the buffer lock
+    void add(Event event) {
+      if (events.size() == replaySize) {
+        floor = events.removeFirst().id();
+      }
+      events.addLast(event);
+    }
+
+    void replayTo(Subscriber subscriber, long lastEventId) {
+      if (lastEventId < floor || lastEventId > sequence.get()) {
+        subscriber.offer(new Event(sequence.get(), RESYNC, Map.of()));
+        return;
+      }
+      for (Event event : events) {
+        if (event.id() > lastEventId) {
+          subscriber.offer(event);
+        }
+      }
+    }
+  }
+
+  private final class Subscriber {
+
+    private final Long userId;
+    private final SseEmitter emitter;
+    private final ArrayBlockingQueue<Event> queue = new ArrayBlockingQueue<>(bufferSize);
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+
+    Subscriber(Long userId, SseEmitter emitter) {
+      this.userId = userId;
+      this.emitter = emitter;
+    }
+
+    void offer(Event event) {
+      if (!queue.offer(event)) {
+        // too slow to keep up: drop the backlog, the client reloads on "resync"
+        queue.clear();
+        overflowed.set(true);
+      }
+      schedule();
+    }
+
+    void heartbeat() {
+      if (queue.isEmpty()) {
+        offer(new Event(0, null, null));
+      }
+    }
+
+    private void schedule() {
+      if (draining.compareAndSet(false, true)) {
+        delivery.execute(this::drain);
+      }
+    }
+
+    private void drain() {
+      try {
+        while (true) {
+          if (overflowed.getAndSet(false)) {
+            emitter.send(SseEmitter.event().id(String.valueOf(sequence.get())).name(RESYNC).data(Map.of()));
+          }
+          Event event = queue.poll();
+          if (event == null) {
+            break;
+          }
+          if (event.data() == null) {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+          } else {
+            emitter.send(SseEmitter.event()
+                .id(String.valueOf(event.id()))
+                .name(event.name())
+                .data(event.data(), MediaType.APPLICATION_JSON));
+          }
+        }
+      } catch (IOException | IllegalStateException e) {
+        // client went away or the emitter already completed; the container reports the error to the emitter
+        unsubscribe(this);
+        queue.clear();
+        return;
+      } finally {
+        draining.set(false);
+      }
+      if (!queue.isEmpty() || overflowed.get()) {
+        schedule();
+      }
+    }
+  }
+}
@@ -0,0 +1,11 @@
+package neurogine.example.todo.exception;
+
+/**
+ * A cursor query parameter that was not issued by the server (malformed, truncated or tampered with)
+ */
+public class InvalidCursorException extends IllegalArgumentException {
+
+  public InvalidCursorException() {
+    super("Invalid cursor");
+  }
+}
@@ -0,0 +1,19 @@
+package neurogine.example.todo.exception;
+
+import lombok.Getter;
+import neurogine.example.todo.dto.TodoDTO;
+
+/**
+ * The todo changed since the version the client based its write on.
+ * Carries the current state so the client can merge and retry without another read.
+ */
+@Getter
+public class TodoConflictException extends RuntimeException {
+
+  private final TodoDTO current;
+
+  public TodoConflictException(TodoDTO current) {
+    super("Todo " + current.getId() + " was modified concurrently (current version " + current.getVersion() + ")");
+    this.current = current;
+  }
+}
@@ -0,0 +1,8 @@
+package neurogine.example.todo.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import neurogine.example.todo.entity.SyncCounterEntity;
+
+public interface SyncCounterRepository extends JpaRepository<SyncCounterEntity, Long> {
+}
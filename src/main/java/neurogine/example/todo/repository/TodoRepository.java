@@ -1,26 +1,142 @@
 package neurogine.example.todo.repository;
 
+import neurogine.example.todo.dto.TodoDTO;
 import neurogine.example.todo.entity.TodoEntity;
 import neurogine.example.todo.enums.TodoStatus;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface TodoRepository extends JpaRepository<TodoEntity, Long> {
-  
+public interface TodoRepository extends JpaRepository<TodoEntity, Long>, TodoSearchRepository {
+
   // Find all todos for a specific user
   List<TodoEntity> findByUserId(Long userId);
-  
+
   // Find todos by status
   List<TodoEntity> findByUserIdAndStatus(Long userId, TodoStatus status);
-  
+
   // Find todos by title containing keyword
   List<TodoEntity> findByUserIdAndTitleContainingIgnoreCase(Long userId, String keyword);
-  
+
   // Count todos by status
   long countByUserIdAndStatus(Long userId, TodoStatus status);
 
   List<TodoEntity> findByUserIdAndIsFavoriteTrue(Long userId);
+
+  // Counts by status plus favorites per status, in one GROUP BY instead of loading every row
+  @Query("select t.status as status, count(t) as total,"
+      + " sum(case when t.isFavorite = true then 1 else 0 end) as favorites"
+      + " from TodoEntity t where t.user.id = :userId group by t.status")
+  List<TodoStatusCount> countByStatus(@Param("userId") Long userId);
+
+  // Batch writes: rows stay locked until commit, so the state read here is still the previous state when the
+  // statistics counters are adjusted
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select t from TodoEntity t where t.id in :ids")
+  List<TodoEntity> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+  // Read paths project straight into the response DTO: no entity hydration, no dirty checking,
+  // and the user columns come from the same join instead of a lazy fetch per row
+  String SELECT_DTO = "select new neurogine.example.todo.dto.TodoDTO(t.id, t.title, t.description, t.icon,"
+      + " t.isFavorite, t.status, u.id, u.username, t.createdAt, t.updatedAt, t.version)"
+      + " from TodoEntity t join t.user u";
+
+  @Query(SELECT_DTO + " where t.id = :id")
+  Optional<TodoDTO> findDtoById(@Param("id") Long id);
+
+  // probe behind the todo ETag / Last-Modified, answers 304 without loading the row
+  @Query("select t.version as version, t.updatedAt as updatedAt from TodoEntity t"
+      + " where t.id = :id and t.user.id = :userId")
+  Optional<TodoVersion> findVersionOwned(@Param("id") Long id, @Param("userId") Long userId);
+
+  @Query(SELECT_DTO + " where t.id in :ids")
+  List<TodoDTO> findDtosByIds(@Param("ids") Collection<Long> ids);
+
+  // State before a single-todo write, for the statistics deltas; the lock keeps it current until commit
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select t from TodoEntity t where t.id = :id and t.user.id = :userId")
+  Optional<TodoEntity> findOwnedForUpdate(@Param("id") Long id, @Param("userId") Long userId);
+
+  // Ownership-checked single-statement mutations: 0 affected rows means not found, not owned,
+  // or a version other than the expected one (a null version skips that check).
+  // Bulk statements bypass @UpdateTimestamp and @Version, so updatedAt and the version bump are explicit.
+  @Modifying
+  @Query("update TodoEntity t set t.title = coalesce(:title, t.title),"
+      + " t.description = coalesce(:description, t.description),"
+      + " t.status = coalesce(:status, t.status), t.icon = coalesce(:icon, t.icon), t.updatedAt = :now,"
+      + " t.version = t.version + 1"
+      + " where t.id = :id and t.user.id = :userId and (:version is null or t.version = :version)")
+  int updateOwned(@Param("id") Long id, @Param("userId") Long userId, @Param("title") String title,
+      @Param("description") String description, @Param("status") TodoStatus status, @Param("icon") String icon,
+      @Param("now") LocalDateTime now, @Param("version") Long version);
+
+  @Modifying
+  @Query("update TodoEntity t set t.status = :status, t.updatedAt = :now, t.version = t.version + 1"
+      + " where t.id = :id and t.user.id = :userId and (:version is null or t.version = :version)")
+  int updateStatusOwned(@Param("id") Long id, @Param("userId") Long userId, @Param("status") TodoStatus status,
+      @Param("now") LocalDateTime now, @Param("version") Long version);
+
+  // Atomic flip in the database: SET is_favorite = NOT is_favorite
+  @Modifying
+  @Query("update TodoEntity t set t.isFavorite = case when t.isFavorite = true then false else true end,"
+      + " t.updatedAt = :now, t.version = t.version + 1"
+      + " where t.id = :id and t.user.id = :userId and (:version is null or t.version = :version)")
+  int toggleFavoriteOwned(@Param("id") Long id, @Param("userId") Long userId, @Param("now") LocalDateTime now,
+      @Param("version") Long version);
+
+  @Modifying
+  @Query("delete from TodoEntity t where t.id = :id and t.user.id = :userId")
+  int deleteOwned(@Param("id") Long id, @Param("userId") Long userId);
+
+  // Keyset pages, newest first: rows strictly after the (updatedAt, id) cursor
+  @Query(SELECT_DTO + " where u.id = :userId"
+      + " and (t.updatedAt < :updatedAt or (t.updatedAt = :updatedAt and t.id < :id))"
+      + " order by t.updatedAt desc, t.id desc")
+  List<TodoDTO> findPage(@Param("userId") Long userId, @Param("updatedAt") LocalDateTime updatedAt,
+      @Param("id") Long id, Limit limit);
+
+  @Query(SELECT_DTO + " where u.id = :userId and t.status = :status"
+      + " and (t.updatedAt < :updatedAt or (t.updatedAt = :updatedAt and t.id < :id))"
+      + " order by t.updatedAt desc, t.id desc")
+  List<TodoDTO> findPageByStatus(@Param("userId") Long userId, @Param("status") TodoStatus status,
+      @Param("updatedAt") LocalDateTime updatedAt, @Param("id") Long id, Limit limit);
+
+  @Query(SELECT_DTO + " where u.id = :userId and t.isFavorite = true"
+      + " and (t.updatedAt < :updatedAt or (t.updatedAt = :updatedAt and t.id < :id))"
+      + " order by t.updatedAt desc, t.id desc")
+  List<TodoDTO> findFavoritePage(@Param("userId") Long userId, @Param("updatedAt") LocalDateTime updatedAt,
+      @Param("id") Long id, Limit limit);
+
+  // Every todo of a user as DTOs, used to build the in-memory search index
+  @Query(SELECT_DTO + " where u.id = :userId")
+  List<TodoDTO> findDtosByUserId(@Param("userId") Long userId);
+
+  // Streamed off the JDBC cursor for NDJSON responses; must be consumed inside a transaction
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query(SELECT_DTO + " where u.id = :userId order by t.updatedAt desc, t.id desc")
+  Stream<TodoDTO> streamByUserId(@Param("userId") Long userId);
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query(SELECT_DTO + " where u.id = :userId and t.status = :status order by t.updatedAt desc, t.id desc")
+  Stream<TodoDTO> streamByUserIdAndStatus(@Param("userId") Long userId, @Param("status") TodoStatus status);
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query(SELECT_DTO + " where u.id = :userId and t.isFavorite = true order by t.updatedAt desc, t.id desc")
+  Stream<TodoDTO> streamFavoritesByUserId(@Param("userId") Long userId);
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package neurogine.example.todo.repository;
+
+import java.util.List;
+
+import neurogine.example.todo.entity.TodoEntity;
+
+/**
+ * Full-text search over todo title and description, executed in the database.
+ */
+public interface TodoSearchRepository {
+
+  // Ranked best match first; each keyword term is matched as a word prefix
+  List<TodoEntity> searchByUserId(Long userId, String keyword, int offset, int limit);
+}
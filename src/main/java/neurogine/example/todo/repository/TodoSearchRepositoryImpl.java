@@ -0,0 +1,93 @@
+package neurogine.example.todo.repository;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import neurogine.example.todo.entity.TodoEntity;
+import neurogine.example.todo.util.SearchTerms;
+
+/**
+ * Picks the full-text syntax of the configured dialect:
+ * MySQL FULLTEXT (boolean mode), Postgres tsvector, LIKE for anything else (H2 in dev/tests).
+ */
+public class TodoSearchRepositoryImpl implements TodoSearchRepository {
+
+  // must match the expression of the FULLTEXT / GIN index on todos
+  private static final String MYSQL_SEARCH =
+      "SELECT t.* FROM todos t"
+      + " WHERE t.user_id = :userId AND MATCH(t.title, t.description) AGAINST (:query IN BOOLEAN MODE)"
+      + " ORDER BY MATCH(t.title, t.description) AGAINST (:query IN BOOLEAN MODE) DESC, t.id DESC";
+
+  private static final String POSTGRES_DOCUMENT =
+      "to_tsvector('simple', coalesce(t.title, '') || ' ' || coalesce(t.description, ''))";
+
+  private static final String POSTGRES_SEARCH =
+      "SELECT t.* FROM todos t"
+      + " WHERE t.user_id = :userId AND " + POSTGRES_DOCUMENT + " @@ to_tsquery('simple', :query)"
+      + " ORDER BY ts_rank(" + POSTGRES_DOCUMENT + ", to_tsquery('simple', :query)) DESC, t.id DESC";
+
+  private static final String LIKE_SEARCH =
+      "select t from TodoEntity t where t.user.id = :userId"
+      + " and (lower(t.title) like :query escape '!' or lower(t.description) like :query escape '!')"
+      + " order by t.updatedAt desc, t.id desc";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  private volatile Dialect dialect;
+
+  @Override
+  public List<TodoEntity> searchByUserId(Long userId, String keyword, int offset, int limit) {
+    // letters and digits only, so user input can never inject full-text operators
+    List<String> terms = SearchTerms.tokenize(keyword);
+    if (terms.isEmpty()) {
+      return List.of();
+    }
+
+    Query query;
+    Dialect currentDialect = dialect();
+    if (currentDialect instanceof MySQLDialect) {
+      // +term* : every term required, matched as a word prefix
+      query = entityManager.createNativeQuery(MYSQL_SEARCH, TodoEntity.class)
+          .setParameter("query", terms.stream().map(term -> "+" + term + "*").collect(Collectors.joining(" ")));
+    } else if (currentDialect instanceof PostgreSQLDialect) {
+      query = entityManager.createNativeQuery(POSTGRES_SEARCH, TodoEntity.class)
+          .setParameter("query", terms.stream().map(term -> term + ":*").collect(Collectors.joining(" & ")));
+    } else {
+      query = entityManager.createQuery(LIKE_SEARCH, TodoEntity.class)
+          .setParameter("query", "%" + escapeLike(keyword.trim().toLowerCase(Locale.ROOT)) + "%");
+    }
+
+    @SuppressWarnings("unchecked")
+    List<TodoEntity> results = query
+        .setParameter("userId", userId)
+        .setFirstResult(offset)
+        .setMaxResults(limit)
+        .getResultList();
+    return results;
+  }
+
+  // the keyword is matched literally: "100%" or "a_b" must not act as wildcards
+  static String escapeLike(String keyword) {
+    return keyword.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+  }
+
+  private Dialect dialect() {
+    if (dialect == null) {
+      dialect = entityManager.getEntityManagerFactory()
+          .unwrap(SessionFactoryImplementor.class)
+          .getJdbcServices()
+          .getDialect();
+    }
+    return dialect;
+  }
+}
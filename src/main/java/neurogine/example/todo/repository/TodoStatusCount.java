@@ -0,0 +1,15 @@
+package neurogine.example.todo.repository;
+
+import neurogine.example.todo.enums.TodoStatus;
+
+/**
+ * One row of the per-status aggregate in TodoRepository.countByStatus
+ */
+public interface TodoStatusCount {
+
+  TodoStatus getStatus();
+
+  Long getTotal();
+
+  Long getFavorites();
+}
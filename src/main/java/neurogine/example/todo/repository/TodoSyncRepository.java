@@ -0,0 +1,27 @@
+package neurogine.example.todo.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import neurogine.example.todo.entity.TodoSyncEntity;
+
+public interface TodoSyncRepository extends JpaRepository<TodoSyncEntity, Long> {
+
+  // changes after the client's (version, todo_id), oldest first (idx_todo_sync_user_version); todo_id breaks
+  // ties between rows sharing a version, e.g. the todos V3 backfilled at version 1
+  @Query("select s from TodoSyncEntity s where s.userId = :userId"
+      + " and (s.version > :version or (s.version = :version and s.todoId > :todoId))"
+      + " order by s.version, s.todoId")
+  List<TodoSyncEntity> findPageAfter(@Param("userId") Long userId, @Param("version") Long version,
+      @Param("todoId") Long todoId, Limit limit);
+
+  // re-stamp an existing row without reading it first; 0 means the todo has no row yet
+  @Modifying
+  @Query("update TodoSyncEntity s set s.version = :version, s.deleted = :deleted where s.todoId = :todoId")
+  int stamp(@Param("todoId") Long todoId, @Param("version") Long version, @Param("deleted") Boolean deleted);
+}
@@ -0,0 +1,13 @@
+package neurogine.example.todo.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version and last modification of one todo, from TodoRepository.findVersionOwned
+ */
+public interface TodoVersion {
+
+  Long getVersion();
+
+  LocalDateTime getUpdatedAt();
+}
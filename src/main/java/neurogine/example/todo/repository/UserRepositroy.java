@@ -2,13 +2,30 @@ package neurogine.example.todo.repository;
 
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.QueryHint;
 import neurogine.example.todo.entity.UserEntity;
 
 public interface UserRepositroy extends JpaRepository<UserEntity, Long> {
 
   // select * from users where email = ?
+  // query cache (when the second-level cache is on): invalidated by any write to the users table
+  // not read-only, so on its own it stays on the primary with a read replica: a login right after /register
+  // must not miss a user the replica has not received yet. Inside a read-only transaction PrincipalCache
+  // routes it with ReplicaRoutingDataSource.onPrimary instead of nesting a second transaction
+  @Transactional
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   Optional<UserEntity> findByEmail(String email);
-  
-}
\ No newline at end of file
+
+  // bulk statement on purpose: skips UserEntityListener, so a hash upgrade does not revoke the user's tokens
+  @Modifying
+  @Query("update UserEntity u set u.password = :password where u.email = :email")
+  int updatePasswordHash(@Param("email") String email, @Param("password") String password);
+}
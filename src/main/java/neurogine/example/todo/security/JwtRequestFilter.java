@@ -8,6 +8,7 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.io.IOException;    
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -22,31 +23,38 @@ public class JwtRequestFilter extends OncePerRequestFilter{
 
   private final JwtUtil jwtUtil;
   private final UserDetailsService userDetailsService;
+  private final TokenRevocations tokenRevocations;
 
   @Override
   protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws IOException, ServletException, java.io.IOException {
     
     // extract JWT from Authorization header
     final String authHeader = request.getHeader("Authorization");
-    String email = null;
-    String jwt = null;
+    Claims claims = null;
 
-    // extract token and email
+    // verify token once (signature + expiration) and keep its claims
     if (authHeader != null && authHeader.startsWith("Bearer ")) {
-      jwt = authHeader.substring(7);
-      email = jwtUtil.extractUsername(jwt);
+      claims = jwtUtil.verifyToken(authHeader.substring(7));
     } 
 
+    // refresh tokens only work on /token/refresh; revocation is two in-memory lookups, no database
+    if (claims != null && (JwtUtil.isRefreshToken(claims) || tokenRevocations.isRevoked(claims))) {
+      claims = null;
+    }
+
     // prevent re-authentication if already authenticated
-    if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-      UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-      if (jwtUtil.validateToken(jwt, userDetails)){
-        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-          userDetails, null, userDetails.getAuthorities()
-        );
-        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-        SecurityContextHolder.getContext().setAuthentication(authToken);
+    if (claims != null && claims.getSubject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+      UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+      // a deactivated account stays anonymous even with a token that is not revoked
+      if (!userDetails.isEnabled()) {
+        filterChain.doFilter(request, response);
+        return;
       }
+      UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+        userDetails, null, userDetails.getAuthorities()
+      );
+      authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+      SecurityContextHolder.getContext().setAuthentication(authToken);
     }
     filterChain.doFilter(request, response);
   }
@@ -0,0 +1,88 @@
+package neurogine.example.todo.security;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import neurogine.example.todo.config.ReplicaRoutingDataSource;
+import lombok.RequiredArgsConstructor;
+import neurogine.example.todo.entity.UserEntity;
+import neurogine.example.todo.repository.UserRepositroy;
+
+/**
+ * Bounded, TTL-based cache of authenticated principals keyed by token subject (email).
+ * Shared by JwtRequestFilter (via AppUserDetailsService) and UserService.getCurrentUser()
+ * so an authenticated request does not hit the users table more than once per TTL.
+ */
+@Component
+@RequiredArgsConstructor
+public class PrincipalCache {
+
+  private final UserRepositroy userRepository;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${cache.principal.maxSize:10000}")
+  private long maxSize;
+
+  @Value("${cache.principal.ttlSeconds:300}")
+  private long ttlSeconds;
+
+  private Cache<String, UserEntity> cache;
+
+  @PostConstruct
+  void init() {
+    cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "principals");
+  }
+
+  /**
+   * Get the user for the given subject, loading it from the database on a miss.
+   * Unknown subjects are not cached.
+   */
+  public Optional<UserEntity> get(String email) {
+    if (email == null) {
+      return Optional.empty();
+    }
+    // misses read the primary, also from inside a read-only transaction that would otherwise take the replica
+    return Optional.ofNullable(cache.get(email,
+        key -> ReplicaRoutingDataSource.onPrimary(() -> userRepository.findByEmail(key)).orElse(null)));
+  }
+
+  /**
+   * Drop the cached principal, e.g. after deactivation or a password change.
+   * Inside a transaction it is dropped again after commit: a request that reloads the user in between
+   * still reads the old row and would otherwise cache it for the full TTL.
+   */
+  public void invalidate(String email) {
+    if (email == null) {
+      return;
+    }
+    cache.invalidate(email);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          cache.invalidate(email);
+        }
+      });
+    }
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+}
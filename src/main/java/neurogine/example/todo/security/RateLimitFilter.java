@@ -0,0 +1,302 @@
+package neurogine.example.todo.security;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Per-subject token buckets, placed after JwtRequestFilter so authenticated requests are keyed by user.
+ * Login, refresh and register pass two buckets: one per client address, with a burst large enough for a NAT
+ * or proxy, and one per address plus the email in the body, so guesses at one account stay slow. A request
+ * needs both; the address one is taken first, so a client spraying emails is stopped before it creates more
+ * account buckets. Login buckets live in their own map and cannot evict the read/write buckets of users.
+ * Their body is read here (at most login.maxBodyBytes, 413 beyond) and replayed to the controller.
+ * The client address is the forwarded one behind a trusted proxy (server.forward-headers-strategy).
+ * Each bucket is a single AtomicLong holding the theoretical arrival time of the next request (GCRA):
+ * admitting a request is one compare-and-set, with no lock and no refill thread.
+ * Buckets live in a bounded Caffeine map and are dropped after being idle.
+ * Rejections answer 429 with Retry-After and are counted as todo.ratelimit.rejected{budget}.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+  enum Budget {
+    READ, WRITE, LOGIN
+  }
+
+  private final MeterRegistry meterRegistry;
+  private final JsonMapper jsonMapper;
+
+  @Value("${todo.rateLimit.enabled:true}")
+  private boolean enabled;
+
+  @Value("${todo.rateLimit.maxKeys:100000}")
+  private long maxKeys;
+
+  @Value("${todo.rateLimit.idleMinutes:10}")
+  private long idleMinutes;
+
+  @Value("${todo.rateLimit.read.perSecond:50}")
+  private double readPerSecond;
+
+  @Value("${todo.rateLimit.read.burst:100}")
+  private int readBurst;
+
+  @Value("${todo.rateLimit.write.perSecond:10}")
+  private double writePerSecond;
+
+  @Value("${todo.rateLimit.write.burst:20}")
+  private int writeBurst;
+
+  @Value("${todo.rateLimit.login.perSecond:0.5}")
+  private double loginPerSecond;
+
+  @Value("${todo.rateLimit.login.burst:5}")
+  private int loginBurst;
+
+  @Value("${todo.rateLimit.loginAddress.perSecond:2}")
+  private double loginAddressPerSecond;
+
+  @Value("${todo.rateLimit.loginAddress.burst:20}")
+  private int loginAddressBurst;
+
+  @Value("${todo.rateLimit.login.maxKeys:100000}")
+  private long loginMaxKeys;
+
+  @Value("${todo.rateLimit.login.maxBodyBytes:8192}")
+  private int loginMaxBodyBytes;
+
+  private Cache<String, AtomicLong> buckets;
+  // address and address/email buckets of login, refresh and register
+  private Cache<String, AtomicLong> loginBuckets;
+  private Limit loginAddressLimit;
+  private final Map<Budget, Limit> limits = new EnumMap<>(Budget.class);
+  private final Map<Budget, Counter> rejected = new EnumMap<>(Budget.class);
+
+  @PostConstruct
+  void init() {
+    buckets = Caffeine.newBuilder()
+        .maximumSize(maxKeys)
+        .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+        .build();
+    loginBuckets = Caffeine.newBuilder()
+        .maximumSize(loginMaxKeys)
+        .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+        .build();
+    loginAddressLimit = Limit.of(loginAddressPerSecond, loginAddressBurst);
+    limits.put(Budget.READ, Limit.of(readPerSecond, readBurst));
+    limits.put(Budget.WRITE, Limit.of(writePerSecond, writeBurst));
+    limits.put(Budget.LOGIN, Limit.of(loginPerSecond, loginBurst));
+    for (Budget budget : Budget.values()) {
+      rejected.put(budget, Counter.builder("todo.ratelimit.rejected")
+          .description("Requests answered with 429")
+          .tag("budget", budget.name().toLowerCase())
+          .register(meterRegistry));
+    }
+    Gauge.builder("todo.ratelimit.buckets", this, filter -> filter.buckets.estimatedSize()
+            + filter.loginBuckets.estimatedSize())
+        .description("Active rate-limit buckets")
+        .register(meterRegistry);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !enabled || request.getRequestURI().endsWith("/actuator/health");
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    Budget budget = budget(request);
+    if (budget != Budget.LOGIN) {
+      if (admit(budget, buckets, budget.name() + ':' + subject(request), limits.get(budget), response)) {
+        filterChain.doFilter(request, response);
+      }
+      return;
+    }
+
+    String address = request.getRemoteAddr();
+    if (!admit(budget, loginBuckets, address, loginAddressLimit, response)) {
+      return;
+    }
+    BufferedBodyRequest buffered = request.getContentLengthLong() > loginMaxBodyBytes
+        ? null
+        : BufferedBodyRequest.read(request, loginMaxBodyBytes);
+    if (buffered == null) {
+      reject(response, HttpStatus.CONTENT_TOO_LARGE, "Request body too large");
+      return;
+    }
+    if (admit(budget, loginBuckets, address + '/' + claimedEmail(buffered.body), limits.get(budget), response)) {
+      filterChain.doFilter(buffered, response);
+    }
+  }
+
+  // takes one request from the bucket, or answers 429 and returns false
+  private boolean admit(Budget budget, Cache<String, AtomicLong> map, String key, Limit limit,
+      HttpServletResponse response) throws IOException {
+    AtomicLong bucket = map.get(key, k -> new AtomicLong(System.nanoTime()));
+    long waitNanos = limit.acquire(bucket, System.nanoTime());
+    if (waitNanos <= 0) {
+      return true;
+    }
+    rejected.get(budget).increment();
+    response.setHeader(HttpHeaders.RETRY_AFTER,
+        String.valueOf(Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1))));
+    reject(response, HttpStatus.TOO_MANY_REQUESTS, "Too many requests");
+    return false;
+  }
+
+  private static void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+    response.setStatus(status.value());
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response.getWriter().write("{\"message\":\"" + message + "\"}");
+  }
+
+  static Budget budget(HttpServletRequest request) {
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    if (path.equals("/login") || path.equals("/token/refresh") || path.equals("/register")) {
+      return Budget.LOGIN;
+    }
+    String method = request.getMethod();
+    return method.equals("GET") || method.equals("HEAD") || method.equals("OPTIONS") ? Budget.READ : Budget.WRITE;
+  }
+
+  private static String subject(HttpServletRequest request) {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication != null && authentication.isAuthenticated()) {
+      return authentication.getName();
+    }
+    return request.getRemoteAddr();
+  }
+
+  // only ever combined with the address: an email alone is whatever the client claims
+  private String claimedEmail(byte[] body) {
+    try {
+      return jsonMapper.readTree(body).path("email").asString("").trim().toLowerCase(Locale.ROOT);
+    } catch (JacksonException e) {
+      return "";
+    }
+  }
+
+  /**
+   * Request whose body was read up front and is served again from memory
+   */
+  static class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+    private final byte[] body;
+
+    private BufferedBodyRequest(HttpServletRequest request, byte[] body) {
+      super(request);
+      this.body = body;
+    }
+
+    /**
+     * Read the body, or return null when it is longer than maxBytes; reads at most one byte more
+     */
+    static BufferedBodyRequest read(HttpServletRequest request, int maxBytes) throws IOException {
+      byte[] body = request.getInputStream().readNBytes(maxBytes + 1);
+      return body.length > maxBytes ? null : new BufferedBodyRequest(request, body);
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+      ByteArrayInputStream in = new ByteArrayInputStream(body);
+      return new ServletInputStream() {
+
+        @Override
+        public int read() {
+          return in.read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+          return in.read(buffer, offset, length);
+        }
+
+        @Override
+        public boolean isFinished() {
+          return in.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+          return true;
+        }
+
+        // everything is in memory already: the data is available at once
+        @Override
+        public void setReadListener(ReadListener listener) {
+          try {
+            if (!isFinished()) {
+              listener.onDataAvailable();
+            }
+            listener.onAllDataRead();
+          } catch (IOException e) {
+            listener.onError(e);
+          }
+        }
+      };
+    }
+  }
+
+  /**
+   * GCRA parameters: one request per interval on average, up to burst requests at once
+   */
+  record Limit(long intervalNanos, long toleranceNanos) {
+
+    static Limit of(double perSecond, int burst) {
+      long interval = (long) (TimeUnit.SECONDS.toNanos(1) / perSecond);
+      return new Limit(interval, interval * Math.max(0, burst - 1));
+    }
+
+    /**
+     * Admit a request at time now: 0 when admitted, otherwise the nanos until it would be
+     */
+    long acquire(AtomicLong theoreticalArrival, long now) {
+      while (true) {
+        long tat = theoreticalArrival.get();
+        long start = Math.max(tat, now);
+        long wait = start - toleranceNanos - now;
+        if (wait > 0) {
+          return wait;
+        }
+        if (theoreticalArrival.compareAndSet(tat, start + intervalNanos)) {
+          return 0;
+        }
+      }
+    }
+  }
+}
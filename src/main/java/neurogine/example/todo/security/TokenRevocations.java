@@ -0,0 +1,99 @@
+package neurogine.example.todo.security;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import neurogine.example.todo.util.JwtUtil;
+
+/**
+ * In-memory revocation state for JWTs, checked by JwtRequestFilter on every request without touching the database.
+ * Two maps, both cleaned up by expiry: revoked token ids (logout, refresh rotation), each kept only until
+ * its token would have expired anyway, and per-subject cut-offs (credential change, deactivation) that revoke
+ * every token issued up to that instant, kept for the longest token lifetime.
+ * Neither map has a size bound: evicting an entry early would silently un-revoke its tokens. Their size is
+ * bounded by the revocations made within one token lifetime instead.
+ * State is per instance and does not survive a restart; access tokens are short-lived to bound that window.
+ */
+@Component
+public class TokenRevocations {
+
+  @Value("${jwt.refreshExpirationDays:14}")
+  private long refreshExpirationDays;
+
+  // jti -> expiry of the revoked token
+  private Cache<String, Instant> revokedIds;
+  // subject -> tokens issued at or before this instant (millisecond precision) are revoked
+  private Cache<String, Instant> revokedBefore;
+
+  @PostConstruct
+  void init() {
+    revokedIds = Caffeine.newBuilder()
+        .expireAfter(Expiry.creating((String id, Instant expiresAt) -> remaining(expiresAt)))
+        .build();
+    revokedBefore = Caffeine.newBuilder()
+        .expireAfterWrite(Duration.ofDays(refreshExpirationDays))
+        .build();
+  }
+
+  /**
+   * Revoke a single token, e.g. on logout or when a refresh token is rotated
+   */
+  public void revoke(Claims claims) {
+    if (claims.getId() != null && claims.getExpiration() != null) {
+      revokedIds.put(claims.getId(), claims.getExpiration().toInstant());
+    }
+  }
+
+  /**
+   * Revoke a single token unless it already is: true for exactly one caller, so a refresh token presented
+   * twice at the same time is only exchanged once. Tokens without an id or expiry cannot be claimed.
+   */
+  public boolean claim(Claims claims) {
+    if (claims.getId() == null || claims.getExpiration() == null) {
+      return false;
+    }
+    return revokedIds.asMap().putIfAbsent(claims.getId(), claims.getExpiration().toInstant()) == null;
+  }
+
+  /**
+   * Revoke every token of the subject issued so far (password change, deactivation)
+   */
+  public void revokeAll(String subject) {
+    if (subject != null) {
+      revokedBefore.put(subject, Instant.now().truncatedTo(ChronoUnit.MILLIS));
+    }
+  }
+
+  public boolean isRevoked(Claims claims) {
+    if (claims.getId() != null && revokedIds.getIfPresent(claims.getId()) != null) {
+      return true;
+    }
+    Instant cutOff = claims.getSubject() != null ? revokedBefore.getIfPresent(claims.getSubject()) : null;
+    if (cutOff == null) {
+      return false;
+    }
+    Instant issuedAt = JwtUtil.issuedAtMillis(claims);
+    if (issuedAt != null) {
+      return !issuedAt.isAfter(cutOff);
+    }
+    // older tokens carry iat in whole seconds only: one from the revocation second itself counts as revoked
+    Date iat = claims.getIssuedAt();
+    return iat == null || !iat.toInstant().isAfter(cutOff.truncatedTo(ChronoUnit.SECONDS));
+  }
+
+  private static Duration remaining(Instant expiresAt) {
+    Duration remaining = Duration.between(Instant.now(), expiresAt);
+    return remaining.isNegative() ? Duration.ZERO : remaining;
+  }
+}
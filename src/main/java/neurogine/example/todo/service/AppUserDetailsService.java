@@ -4,30 +4,51 @@ import java.util.Collections;
 
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import neurogine.example.todo.entity.UserEntity;
 import neurogine.example.todo.repository.UserRepositroy;
+import neurogine.example.todo.security.PrincipalCache;
 
 @Service
 @RequiredArgsConstructor
-public class AppUserDetailsService implements UserDetailsService {
+public class AppUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
+  private final PrincipalCache principalCache;
   private final UserRepositroy userRepository;
 
+  // principal cache hit or users lookup, on every authenticated request
   @Override
+  @Timed(value = "todo.auth.user.lookup", description = "User lookup for authentication")
   public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
 
-    UserEntity existingProfile = userRepository.findByEmail(email)
+    UserEntity existingProfile = principalCache.get(email)
         .orElseThrow(() -> new UsernameNotFoundException("Profile with email " + email + " not found"));
     return User.builder()
         .username(existingProfile.getEmail())
         .password(existingProfile.getPassword())
         .authorities(Collections.emptyList())
+        // deactivated accounts fail the login (DisabledException) and are ignored by JwtRequestFilter
+        .disabled(!Boolean.TRUE.equals(existingProfile.getIsActive()))
         .build();
   }
-  
+
+  /**
+   * Called by the authentication provider after a successful login whose stored hash is weaker than
+   * the configured BCrypt strength; the password is re-hashed transparently, without user involvement
+   */
+  @Override
+  @Transactional
+  public UserDetails updatePassword(UserDetails user, String newPassword) {
+    // same password, stronger hash: existing tokens stay valid, only the cached principal is refreshed
+    userRepository.updatePasswordHash(user.getUsername(), newPassword);
+    principalCache.invalidate(user.getUsername());
+    return User.withUserDetails(user).password(newPassword).build();
+  }
 }
@@ -0,0 +1,27 @@
+package neurogine.example.todo.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import neurogine.example.todo.config.AsyncConfig;
+import neurogine.example.todo.dto.AuthDTO;
+
+/**
+ * Runs logins (user lookup, BCrypt verify, token mint) on the bounded loginExecutor.
+ * Submitting to a full executor throws TaskRejectedException on the caller's thread.
+ */
+@Service
+@RequiredArgsConstructor
+public class LoginService {
+
+  private final UserService userService;
+
+  @Async(AsyncConfig.LOGIN_EXECUTOR)
+  public CompletableFuture<Map<String, Object>> login(AuthDTO authDTO) {
+    return CompletableFuture.completedFuture(userService.authenticateAndGenerateToken(authDTO));
+  }
+}
@@ -0,0 +1,41 @@
+package neurogine.example.todo.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import neurogine.example.todo.config.AsyncConfig;
+import neurogine.example.todo.dto.TodoPageDTO;
+import neurogine.example.todo.enums.TodoStatus;
+
+/**
+ * Non-blocking counterparts of the heavy TodoService reads, run on the todoReadExecutor.
+ * The executor propagates the caller's SecurityContext, so the current user resolves as usual.
+ */
+@Service
+@RequiredArgsConstructor
+public class TodoAsyncService {
+
+  private final TodoService todoService;
+
+  @Async(AsyncConfig.TODO_READ_EXECUTOR)
+  public CompletableFuture<TodoPageDTO> getTodos(TodoStatus status, String cursor, Integer size) {
+    TodoPageDTO todos = status != null
+        ? todoService.getTodosByStatus(status, cursor, size)
+        : todoService.getTodos(cursor, size);
+    return CompletableFuture.completedFuture(todos);
+  }
+
+  @Async(AsyncConfig.TODO_READ_EXECUTOR)
+  public CompletableFuture<TodoPageDTO> searchTodos(String keyword, String cursor, Integer size) {
+    return CompletableFuture.completedFuture(todoService.searchTodos(keyword, cursor, size));
+  }
+
+  @Async(AsyncConfig.TODO_READ_EXECUTOR)
+  public CompletableFuture<Map<String, Long>> getStatistics() {
+    return CompletableFuture.completedFuture(todoService.getStatistics());
+  }
+}
@@ -0,0 +1,183 @@
+package neurogine.example.todo.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+import neurogine.example.todo.dto.TodoDTO;
+import neurogine.example.todo.util.SearchTerms;
+
+/**
+ * Optional in-process search engine: one inverted index per user over tokenized title and description,
+ * with prefix lookup for autocomplete. Indexes are built lazily on first search, kept up to date by
+ * TodoService mutations and evicted (cold users first) when the memory budget is exceeded.
+ */
+@Component
+public class TodoSearchIndex {
+
+  @Value("${todo.search.inMemory.enabled:false}")
+  private boolean enabled;
+
+  @Value("${todo.search.inMemory.maxBytes:67108864}")
+  private long maxBytes;
+
+  @Value("${todo.search.inMemory.idleMinutes:30}")
+  private long idleMinutes;
+
+  private Cache<Long, UserIndex> indexes;
+
+  @PostConstruct
+  void init() {
+    indexes = Caffeine.newBuilder()
+        .maximumWeight(maxBytes)
+        .weigher((Long userId, UserIndex index) -> (int) Math.min(Integer.MAX_VALUE, index.estimatedBytes()))
+        .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+        .build();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Todos matching every keyword term as a word prefix, newest first.
+   * On a miss the user's index is rebuilt from the rows returned by the loader.
+   */
+  public List<TodoDTO> search(Long userId, String keyword, int offset, int limit, Supplier<List<TodoDTO>> loader) {
+    List<String> terms = SearchTerms.tokenize(keyword);
+    if (terms.isEmpty()) {
+      return List.of();
+    }
+    UserIndex index = indexes.get(userId, id -> {
+      UserIndex built = new UserIndex();
+      loader.get().forEach(built::put);
+      return built;
+    });
+    return index.search(terms, offset, limit);
+  }
+
+  /**
+   * Add or replace a todo; users without a loaded index are left alone
+   */
+  public void upsert(TodoDTO todo) {
+    if (enabled) {
+      // compute re-weighs the entry against the memory budget
+      indexes.asMap().computeIfPresent(todo.getUserId(), (userId, index) -> {
+        index.put(todo);
+        return index;
+      });
+    }
+  }
+
+  public void remove(Long userId, Long todoId) {
+    if (enabled) {
+      indexes.asMap().computeIfPresent(userId, (id, index) -> {
+        index.remove(todoId);
+        return index;
+      });
+    }
+  }
+
+  public void invalidate(Long userId) {
+    indexes.invalidate(userId);
+  }
+
+  static final class UserIndex {
+
+    // rough per-entry overheads used for the memory budget
+    private static final long DOC_OVERHEAD = 256;
+    private static final long POSTING_OVERHEAD = 64;
+
+    private final Map<Long, TodoDTO> docs = new HashMap<>();
+    private final Map<Long, Set<String>> docTerms = new HashMap<>();
+    private final TreeMap<String, Set<Long>> postings = new TreeMap<>();
+    private long bytes;
+
+    synchronized void put(TodoDTO todo) {
+      remove(todo.getId());
+      Set<String> terms = new HashSet<>(SearchTerms.tokenize(todo.getTitle()));
+      terms.addAll(SearchTerms.tokenize(todo.getDescription()));
+
+      docs.put(todo.getId(), todo);
+      docTerms.put(todo.getId(), terms);
+      for (String term : terms) {
+        postings.computeIfAbsent(term, t -> new HashSet<>()).add(todo.getId());
+      }
+      bytes += docBytes(todo, terms);
+    }
+
+    synchronized void remove(Long todoId) {
+      TodoDTO todo = docs.remove(todoId);
+      Set<String> terms = docTerms.remove(todoId);
+      if (todo == null) {
+        return;
+      }
+      for (String term : terms) {
+        Set<Long> ids = postings.get(term);
+        ids.remove(todoId);
+        if (ids.isEmpty()) {
+          postings.remove(term);
+        }
+      }
+      bytes -= docBytes(todo, terms);
+    }
+
+    synchronized List<TodoDTO> search(List<String> terms, int offset, int limit) {
+      Set<Long> matches = null;
+      for (String term : terms) {
+        Set<Long> termMatches = new HashSet<>();
+        // every indexed term starting with the query term
+        postings.subMap(term, true, term + Character.MAX_VALUE, true).values().forEach(termMatches::addAll);
+        if (matches == null) {
+          matches = termMatches;
+        } else {
+          matches.retainAll(termMatches);
+        }
+        if (matches.isEmpty()) {
+          return List.of();
+        }
+      }
+
+      List<TodoDTO> results = new ArrayList<>(matches.size());
+      matches.forEach(id -> results.add(docs.get(id)));
+      return results.stream()
+          .sorted(Comparator.comparing(TodoDTO::getUpdatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+              .thenComparing(TodoDTO::getId, Comparator.reverseOrder()))
+          .skip(offset)
+          .limit(limit)
+          .collect(Collectors.toList());
+    }
+
+    synchronized long estimatedBytes() {
+      return bytes;
+    }
+
+    private static long docBytes(TodoDTO todo, Set<String> terms) {
+      long size = DOC_OVERHEAD + 2L * (length(todo.getTitle()) + length(todo.getDescription())
+          + length(todo.getIcon()) + length(todo.getUsername()));
+      for (String term : terms) {
+        size += POSTING_OVERHEAD + 2L * term.length();
+      }
+      return size;
+    }
+
+    private static int length(String value) {
+      return value == null ? 0 : value.length();
+    }
+  }
+}
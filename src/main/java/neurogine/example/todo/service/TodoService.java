@@ -1,153 +1,238 @@
 package neurogine.example.todo.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import neurogine.example.todo.dto.TodoBatchRequestDTO;
+import neurogine.example.todo.dto.TodoBatchResultDTO;
 import neurogine.example.todo.dto.TodoDTO;
+import neurogine.example.todo.dto.TodoPageDTO;
+import neurogine.example.todo.entity.SyncCounterEntity;
 import neurogine.example.todo.entity.TodoEntity;
 import neurogine.example.todo.entity.UserEntity;
 import neurogine.example.todo.enums.TodoStatus;
+import neurogine.example.todo.event.TodoChangeEvent;
+import neurogine.example.todo.exception.InvalidCursorException;
+import neurogine.example.todo.exception.TodoConflictException;
 import neurogine.example.todo.repository.TodoRepository;
+import neurogine.example.todo.repository.SyncCounterRepository;
+import neurogine.example.todo.repository.TodoVersion;
+import neurogine.example.todo.util.TodoCursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+// every public method is timed as todo.service{class,method,exception}
 @Service
 @RequiredArgsConstructor
+@Timed(value = "todo.service", description = "TodoService calls")
 public class TodoService {
   
   private final TodoRepository todoRepository;
   private final UserService userService;
+  private final TodoSearchIndex todoSearchIndex;
+  private final SyncCounterRepository syncCounterRepository;
+  private final ApplicationEventPublisher eventPublisher;
+  private final TransactionTemplate transactionTemplate;
+
+  private static final String DUPLICATE_ID = "Todo appears more than once in the batch";
+
+  @Value("${todo.page.defaultSize:50}")
+  private int defaultPageSize;
+
+  @Value("${todo.page.maxSize:500}")
+  private int maxPageSize;
+
+  @Value("${todo.batch.maxItems:1000}")
+  private int maxBatchItems;
+
+  @Value("${todo.conflict.maxRetries:3}")
+  private int maxConflictRetries;
 
   /**
    * Create a new todo (status = NEW by default)
    */
+  @Transactional
   public TodoDTO createTodo(TodoDTO todoDTO) {
     UserEntity currentUser = userService.getCurrentUser();
     
     // Use toEntity method - cleaner!
     TodoEntity todo = toEntity(todoDTO, currentUser);
     TodoEntity savedTodo = todoRepository.save(todo);
-    return toDTO(savedTodo);
+    TodoDTO created = toDTO(savedTodo);
+    afterCommit(() -> todoSearchIndex.upsert(created));
+    eventPublisher.publishEvent(TodoChangeEvent.of(TodoChangeEvent.Type.CREATED, created));
+    return created;
+  }
+
+  /**
+   * Get one page of todos for current user, newest first
+   */
+  @Transactional(readOnly = true)
+  public TodoPageDTO getTodos(String cursor, Integer size) {
+    UserEntity currentUser = userService.getCurrentUser();
+    TodoCursor after = TodoCursor.decode(cursor);
+    int pageSize = pageSize(size);
+    return toPage(todoRepository.findPage(currentUser.getId(), after.updatedAt(), after.id(), Limit.of(pageSize + 1)), pageSize);
   }
 
   /**
-   * Get all todos for current user
+   * Get one page of todos by status (NEW, IN_PROGRESS, COMPLETED)
    */
-  public List<TodoDTO> getAllTodos() {
+  @Transactional(readOnly = true)
+  public TodoPageDTO getTodosByStatus(TodoStatus status, String cursor, Integer size) {
     UserEntity currentUser = userService.getCurrentUser();
-    return todoRepository.findByUserId(currentUser.getId())
-      .stream()
-      .map(this::toDTO)
-      .collect(Collectors.toList());
+    TodoCursor after = TodoCursor.decode(cursor);
+    int pageSize = pageSize(size);
+    return toPage(todoRepository.findPageByStatus(currentUser.getId(), status, after.updatedAt(), after.id(), Limit.of(pageSize + 1)), pageSize);
+  }
+
+  /**
+   * Id of the authenticated user, resolved on the calling (request) thread
+   */
+  public Long getCurrentUserId() {
+    return userService.getCurrentUser().getId();
+  }
+
+  /**
+   * Stream todos row by row off the JDBC cursor. Rows are projected to DTOs and never
+   * enter the persistence context, so memory stays constant whatever the result size.
+   */
+  @Transactional(readOnly = true)
+  public void streamTodos(Long userId, TodoStatus status, boolean favoritesOnly, Consumer<TodoDTO> sink) {
+    Stream<TodoDTO> rows;
+    if (favoritesOnly) {
+      rows = todoRepository.streamFavoritesByUserId(userId);
+    } else if (status != null) {
+      rows = todoRepository.streamByUserIdAndStatus(userId, status);
+    } else {
+      rows = todoRepository.streamByUserId(userId);
+    }
+    try (rows) {
+      rows.forEach(sink);
+    }
   }
 
   /**
-   * Get todos by status (NEW, IN_PROGRESS, COMPLETED)
+   * Version and last modification of an owned todo for ETag / Last-Modified, null when it does not exist
+   * or belongs to someone else
    */
-  public List<TodoDTO> getTodosByStatus(TodoStatus status) {
+  public TodoVersion getTodoVersion(Long id) {
     UserEntity currentUser = userService.getCurrentUser();
-    return todoRepository.findByUserIdAndStatus(currentUser.getId(), status)
-      .stream()
-      .map(this::toDTO)
-      .collect(Collectors.toList());
+    return todoRepository.findVersionOwned(id, currentUser.getId()).orElse(null);
   }
 
   /**
    * Get single todo by ID
    */
+  @Transactional(readOnly = true)
   public TodoDTO getTodoById(Long id) {
     UserEntity currentUser = userService.getCurrentUser();
-    TodoEntity todo = todoRepository.findById(id)
+    TodoDTO todo = todoRepository.findDtoById(id)
       .orElseThrow(() -> new RuntimeException("Todo not found"));
     
-    if (!todo.getUser().getId().equals(currentUser.getId())) {
+    if (!todo.getUserId().equals(currentUser.getId())) {
       throw new RuntimeException("Access denied");
     }
     
-    return toDTO(todo);
+    return todo;
   }
 
   /**
    * Update todo (can change title, description, status)
+   * Single UPDATE ... WHERE id = ? AND user_id = ? [AND version = ?]; null fields keep their current value.
+   * With an expected version (If-Match, else todoDTO.version) a stale write fails with TodoConflictException.
    */
-  public TodoDTO updateTodo(Long id, TodoDTO todoDTO) {
+  @Transactional
+  public TodoDTO updateTodo(Long id, TodoDTO todoDTO, Long expectedVersion) {
     UserEntity currentUser = userService.getCurrentUser();
-    TodoEntity todo = todoRepository.findById(id)
-      .orElseThrow(() -> new RuntimeException("Todo not found"));
-    
-    if (!todo.getUser().getId().equals(currentUser.getId())) {
-      throw new RuntimeException("Access denied");
-    }
-    
-    // Update fields
-    if (todoDTO.getTitle() != null) {
-      todo.setTitle(todoDTO.getTitle());
-    }
-    if (todoDTO.getDescription() != null) {
-      todo.setDescription(todoDTO.getDescription());
-    }
-    if (todoDTO.getStatus() != null) {
-      todo.setStatus(todoDTO.getStatus());
-    }
-    if (todoDTO.getIcon() != null) {
-      todo.setIcon(todoDTO.getIcon());
-    }
-    
-    TodoEntity updatedTodo = todoRepository.save(todo);
-    return toDTO(updatedTodo);
+    Long version = expectedVersion != null ? expectedVersion : todoDTO.getVersion();
+    TodoEntity previous = lockOwned(id, currentUser.getId());
+    int updatedRows = todoRepository.updateOwned(id, currentUser.getId(), todoDTO.getTitle(),
+      todoDTO.getDescription(), todoDTO.getStatus(), todoDTO.getIcon(), LocalDateTime.now(), version);
+    TodoDTO updated = afterOwnedMutation(id, currentUser.getId(), updatedRows);
+
+    afterCommit(() -> todoSearchIndex.upsert(updated));
+    eventPublisher.publishEvent(TodoChangeEvent.of(TodoChangeEvent.Type.UPDATED, updated, previous.getStatus(),
+      previous.getIsFavorite()));
+    return updated;
   }
 
   /**
    * Change todo status (NEW → IN_PROGRESS → COMPLETED)
+   * Setting a status does not depend on the rest of the todo, so without an explicit expected version
+   * it is applied atomically on top of whatever version is current and never conflicts.
    */
-  public TodoDTO updateStatus(Long id, TodoStatus newStatus) {
+  @Transactional
+  public TodoDTO updateStatus(Long id, TodoStatus newStatus, Long expectedVersion) {
     UserEntity currentUser = userService.getCurrentUser();
-    TodoEntity todo = todoRepository.findById(id)
-      .orElseThrow(() -> new RuntimeException("Todo not found"));
-    
-    if (!todo.getUser().getId().equals(currentUser.getId())) {
-      throw new RuntimeException("Access denied");
-    }
-    
-    todo.setStatus(newStatus);
-    TodoEntity updatedTodo = todoRepository.save(todo);
-    return toDTO(updatedTodo);
+    TodoEntity previous = lockOwned(id, currentUser.getId());
+    int updatedRows = todoRepository.updateStatusOwned(id, currentUser.getId(), newStatus, LocalDateTime.now(),
+      expectedVersion);
+    TodoDTO updated = afterOwnedMutation(id, currentUser.getId(), updatedRows);
+
+    afterCommit(() -> todoSearchIndex.upsert(updated));
+    eventPublisher.publishEvent(TodoChangeEvent.of(TodoChangeEvent.Type.STATUS, updated, previous.getStatus(),
+      previous.getIsFavorite()));
+    return updated;
   }
 
   /**
    * Start working on a todo (NEW → IN_PROGRESS)
    */
-  public TodoDTO startTodo(Long id) {
-    return updateStatus(id, TodoStatus.IN_PROGRESS);
+  @Transactional
+  public TodoDTO startTodo(Long id, Long expectedVersion) {
+    return updateStatus(id, TodoStatus.IN_PROGRESS, expectedVersion);
   }
 
   /**
    * Mark todo as completed
    */
-  public TodoDTO completeTodo(Long id) {
-    return updateStatus(id, TodoStatus.COMPLETED);
+  @Transactional
+  public TodoDTO completeTodo(Long id, Long expectedVersion) {
+    return updateStatus(id, TodoStatus.COMPLETED, expectedVersion);
   }
 
   /**
    * Reopen a completed todo (COMPLETED → NEW)
    */
-  public TodoDTO reopenTodo(Long id) {
-    return updateStatus(id, TodoStatus.NEW);
+  @Transactional
+  public TodoDTO reopenTodo(Long id, Long expectedVersion) {
+    return updateStatus(id, TodoStatus.NEW, expectedVersion);
   }
 
   /**
    * Delete todo
    */
+  @Transactional
   public void deleteTodo(Long id) {
     UserEntity currentUser = userService.getCurrentUser();
-    TodoEntity todo = todoRepository.findById(id)
-      .orElseThrow(() -> new RuntimeException("Todo not found"));
-    
-    if (!todo.getUser().getId().equals(currentUser.getId())) {
-      throw new RuntimeException("Access denied");
+    TodoEntity previous = lockOwned(id, currentUser.getId());
+    int deletedRows = todoRepository.deleteOwned(id, currentUser.getId());
+    if (deletedRows == 0) {
+      throw mutationFailure(id, currentUser.getId());
     }
-    
-    todoRepository.delete(todo);
+
+    afterCommit(() -> todoSearchIndex.remove(currentUser.getId(), id));
+    eventPublisher.publishEvent(TodoChangeEvent.deleted(currentUser.getId(), id, previous.getStatus(),
+      previous.getIsFavorite()));
   }
 
   // /**
@@ -164,65 +249,344 @@ public class TodoService {
   /**
    * Toggle favorite status
    * PATCH /todos/{id}/favorite
+   * Flipped in the database (SET is_favorite = NOT is_favorite), so concurrent toggles are never lost;
+   * only an explicit expected version can make it conflict
    */
-  public TodoDTO toggleFavorite(Long id) {
+  @Transactional
+  public TodoDTO toggleFavorite(Long id, Long expectedVersion) {
     UserEntity currentUser = userService.getCurrentUser();
-    TodoEntity todo = todoRepository.findById(id)
-      .orElseThrow(() -> new RuntimeException("Todo not found"));
-    
-    if (!todo.getUser().getId().equals(currentUser.getId())) {
-      throw new RuntimeException("Access denied");
-    }
-    
-    todo.setIsFavorite(!todo.getIsFavorite());
-    TodoEntity updated = todoRepository.save(todo);
-    return toDTO(updated);
+    int updatedRows = todoRepository.toggleFavoriteOwned(id, currentUser.getId(), LocalDateTime.now(),
+      expectedVersion);
+    TodoDTO updated = afterOwnedMutation(id, currentUser.getId(), updatedRows);
+
+    afterCommit(() -> todoSearchIndex.upsert(updated));
+    // a toggle only flips the favorite flag, so the previous state follows from the new one
+    eventPublisher.publishEvent(TodoChangeEvent.of(TodoChangeEvent.Type.FAVORITE, updated, updated.getStatus(),
+      !Boolean.TRUE.equals(updated.getIsFavorite())));
+    return updated;
   }
 
   /**
-   * Get all favorite todos
+   * Get one page of favorite todos
    */
-  public List<TodoDTO> getFavoriteTodos() {
+  @Transactional(readOnly = true)
+  public TodoPageDTO getFavoriteTodos(String cursor, Integer size) {
     UserEntity currentUser = userService.getCurrentUser();
-    List<TodoEntity> favorites = todoRepository.findByUserIdAndIsFavoriteTrue(currentUser.getId());
-    return favorites.stream().map(this::toDTO).collect(Collectors.toList());
+    TodoCursor after = TodoCursor.decode(cursor);
+    int pageSize = pageSize(size);
+    return toPage(todoRepository.findFavoritePage(currentUser.getId(), after.updatedAt(), after.id(), Limit.of(pageSize + 1)), pageSize);
   }
 
   /**
-   * Search todos by keyword
+   * Search todos by keyword (full-text, ranked), page by page
    */
-  public List<TodoDTO> searchTodos(String keyword) {
+  @Transactional(readOnly = true)
+  public TodoPageDTO searchTodos(String keyword, String cursor, Integer size) {
     UserEntity currentUser = userService.getCurrentUser();
-    List<TodoEntity> todos = todoRepository.findByUserId(currentUser.getId());
-    
-    return todos.stream()
-      .filter(t -> t.getTitle().toLowerCase().contains(keyword.toLowerCase()) ||
-                   (t.getDescription() != null && t.getDescription().toLowerCase().contains(keyword.toLowerCase())))
-      .map(this::toDTO)
-      .collect(Collectors.toList());
+    int offset = decodeOffset(cursor);
+    int pageSize = pageSize(size);
+
+    List<TodoDTO> rows;
+    if (todoSearchIndex.isEnabled()) {
+      // warm users are answered from the in-memory index without a DB round-trip
+      rows = todoSearchIndex.search(currentUser.getId(), keyword, offset, pageSize + 1,
+        () -> todoRepository.findDtosByUserId(currentUser.getId()));
+    } else {
+      // rows all belong to the current user, so its id and username are used instead of the lazy association
+      rows = todoRepository.searchByUserId(currentUser.getId(), keyword, offset, pageSize + 1)
+        .stream()
+        .map(todo -> toDTO(todo, currentUser))
+        .collect(Collectors.toList());
+    }
+
+    boolean hasNext = rows.size() > pageSize;
+    return TodoPageDTO.builder()
+      .items(hasNext ? rows.subList(0, pageSize) : rows)
+      .nextCursor(hasNext ? encodeOffset(offset + pageSize) : null)
+      .hasNext(hasNext)
+      .build();
   }
 
   /**
-   * Get statistics (count by status)
+   * Apply creates, updates, status transitions and deletes in one transaction.
+   * Ownership is checked with a single IN query and writes are flushed as JDBC batches.
+   * Invalid items are reported per item and skipped; the rest are applied. Every item of a todo referenced
+   * more than once (update, status or delete) fails.
    */
-    public Map<String, Long> getStatistics() {
-      UserEntity currentUser = userService.getCurrentUser();
-      List<TodoEntity> todos = todoRepository.findByUserId(currentUser.getId());
-    
-    Map<String, Long> stats = Map.of(
-      "new", todos.stream().filter(t -> t.getStatus() == TodoStatus.NEW).count(),
-      "inProgress", todos.stream().filter(t -> t.getStatus() == TodoStatus.IN_PROGRESS).count(),
-      "completed", todos.stream().filter(t -> t.getStatus() == TodoStatus.COMPLETED).count(),
-      "total", (long) todos.size(),
-      "favorites", todos.stream().filter(TodoEntity::getIsFavorite).count()
-    );
-    
-    return stats;
+  public List<TodoBatchResultDTO> applyBatch(TodoBatchRequestDTO request) {
+    UserEntity currentUser = userService.getCurrentUser();
+    // items without a version are blind writes, so a batch that lost a @Version race is simply re-applied
+    // on fresh state; items that carry a version are checked per item instead
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return transactionTemplate.execute(status -> applyBatchOnce(request, currentUser));
+      } catch (OptimisticLockingFailureException ex) {
+        if (attempt >= maxConflictRetries) {
+          throw ex;
+        }
+      }
+    }
+  }
+
+  private List<TodoBatchResultDTO> applyBatchOnce(TodoBatchRequestDTO request, UserEntity currentUser) {
+    List<TodoDTO> creates = request.getCreate() != null ? request.getCreate() : List.of();
+    List<TodoDTO> updates = request.getUpdate() != null ? request.getUpdate() : List.of();
+    List<TodoDTO> statusChanges = request.getStatus() != null ? request.getStatus() : List.of();
+    List<Long> deletes = request.getDelete() != null ? request.getDelete() : List.of();
+
+    if (creates.size() + updates.size() + statusChanges.size() + deletes.size() > maxBatchItems) {
+      throw new RuntimeException("Batch exceeds " + maxBatchItems + " items");
+    }
+
+    // one locking IN query for every id referenced by update, status and delete
+    Set<Long> ids = new HashSet<>(deletes);
+    updates.stream().map(TodoDTO::getId).forEach(ids::add);
+    statusChanges.stream().map(TodoDTO::getId).forEach(ids::add);
+    ids.remove(null);
+    // a todo may appear once per batch: several writes to it would be applied in list order rather than
+    // request order, and a write after a delete would resurrect it
+    Set<Long> duplicates = duplicateIds(Stream.of(updates.stream().map(TodoDTO::getId),
+      statusChanges.stream().map(TodoDTO::getId), deletes.stream()).flatMap(Function.identity()));
+    Map<Long, TodoEntity> existing = ids.isEmpty() ? Map.of() : todoRepository.findAllByIdForUpdate(ids).stream()
+      .collect(Collectors.toMap(TodoEntity::getId, Function.identity()));
+    // state before the batch, for the statistics deltas of the change events
+    Map<Long, TodoChangeEvent> previous = existing.values().stream()
+      .collect(Collectors.toMap(TodoEntity::getId, todo -> TodoChangeEvent.deleted(todo.getUser().getId(),
+        todo.getId(), todo.getStatus(), todo.getIsFavorite())));
+
+    List<TodoBatchResultDTO> results = new ArrayList<>();
+    // entities are mapped to DTOs after the flush, once ids and timestamps are assigned
+    List<Map.Entry<TodoBatchResultDTO, TodoEntity>> written = new ArrayList<>();
+
+    List<TodoEntity> toInsert = new ArrayList<>();
+    for (int i = 0; i < creates.size(); i++) {
+      TodoDTO item = creates.get(i);
+      if (item.getTitle() == null || item.getTitle().isBlank()) {
+        results.add(failure("create", i, null, "Title is required"));
+        continue;
+      }
+      TodoEntity todo = toEntity(item, currentUser);
+      toInsert.add(todo);
+      TodoBatchResultDTO result = success("create", i, null);
+      results.add(result);
+      written.add(Map.entry(result, todo));
+    }
+    todoRepository.saveAll(toInsert);
+
+    for (int i = 0; i < updates.size(); i++) {
+      TodoDTO item = updates.get(i);
+      String error = duplicates.contains(item.getId())
+        ? DUPLICATE_ID
+        : ownershipError(existing.get(item.getId()), item.getId(), currentUser);
+      if (error != null) {
+        results.add(failure("update", i, item.getId(), error));
+        continue;
+      }
+      TodoEntity todo = existing.get(item.getId());
+      if (item.getVersion() != null && !item.getVersion().equals(todo.getVersion())) {
+        results.add(failure("update", i, item.getId(), "Version conflict, current version " + todo.getVersion()));
+        continue;
+      }
+      if (item.getTitle() != null) {
+        todo.setTitle(item.getTitle());
+      }
+      if (item.getDescription() != null) {
+        todo.setDescription(item.getDescription());
+      }
+      if (item.getStatus() != null) {
+        todo.setStatus(item.getStatus());
+      }
+      if (item.getIcon() != null) {
+        todo.setIcon(item.getIcon());
+      }
+      TodoBatchResultDTO result = success("update", i, item.getId());
+      results.add(result);
+      written.add(Map.entry(result, todo));
+    }
+
+    for (int i = 0; i < statusChanges.size(); i++) {
+      TodoDTO item = statusChanges.get(i);
+      String error = item.getStatus() == null
+        ? "Status is required"
+        : duplicates.contains(item.getId())
+        ? DUPLICATE_ID
+        : ownershipError(existing.get(item.getId()), item.getId(), currentUser);
+      if (error != null) {
+        results.add(failure("status", i, item.getId(), error));
+        continue;
+      }
+      TodoEntity todo = existing.get(item.getId());
+      todo.setStatus(item.getStatus());
+      TodoBatchResultDTO result = success("status", i, item.getId());
+      results.add(result);
+      written.add(Map.entry(result, todo));
+    }
+
+    List<Long> toDelete = new ArrayList<>();
+    for (int i = 0; i < deletes.size(); i++) {
+      Long id = deletes.get(i);
+      String error = duplicates.contains(id) ? DUPLICATE_ID : ownershipError(existing.get(id), id, currentUser);
+      if (error != null) {
+        results.add(failure("delete", i, id, error));
+        continue;
+      }
+      toDelete.add(id);
+      results.add(success("delete", i, id));
+    }
+
+    // inserts and updates go out as JDBC batches, deletes as a single DELETE ... WHERE id IN (...)
+    todoRepository.flush();
+    if (!toDelete.isEmpty()) {
+      todoRepository.deleteAllByIdInBatch(toDelete);
+    }
+
+    for (Map.Entry<TodoBatchResultDTO, TodoEntity> entry : written) {
+      TodoBatchResultDTO result = entry.getKey();
+      result.setId(entry.getValue().getId());
+      result.setTodo(toDTO(entry.getValue()));
+      TodoChangeEvent before = previous.get(result.getId());
+      eventPublisher.publishEvent(before == null
+        ? TodoChangeEvent.of(batchEventType(result.getOperation()), result.getTodo())
+        : TodoChangeEvent.of(batchEventType(result.getOperation()), result.getTodo(), before.previousStatus(),
+          before.previousFavorite()));
+    }
+    toDelete.forEach(id -> eventPublisher.publishEvent(previous.get(id)));
+
+    // the search index is rebuilt lazily once the batch is visible to other transactions
+    Long userId = currentUser.getId();
+    afterCommit(() -> todoSearchIndex.invalidate(userId));
+    return results;
   }
+
   /**
-   * Convert Entity to DTO
+   * Get statistics (count by status): counters kept on the user's sync counter row by every todo write,
+   * so this is one primary-key read
    */
-  private TodoDTO toDTO(TodoEntity todo) {
+  @Transactional(readOnly = true)
+  public Map<String, Long> getStatistics() {
+    UserEntity currentUser = userService.getCurrentUser();
+    return syncCounterRepository.findById(currentUser.getId())
+      .map(SyncCounterEntity::statistics)
+      .orElseGet(() -> new SyncCounterEntity(currentUser.getId(), 0L).statistics());
+  }
+
+  // state before a single-todo write; one primary-key SELECT ... FOR UPDATE, so the bulk statement that follows
+  // changes exactly this state
+  private TodoEntity lockOwned(Long id, Long userId) {
+    return todoRepository.findOwnedForUpdate(id, userId).orElseThrow(() -> mutationFailure(id, userId));
+  }
+
+  // zero affected rows means the todo is missing, owned by someone else or at another version
+  private TodoDTO afterOwnedMutation(Long id, Long userId, int affectedRows) {
+    if (affectedRows == 0) {
+      throw mutationFailure(id, userId);
+    }
+    return todoRepository.findDtoById(id)
+      .orElseThrow(() -> new RuntimeException("Todo not found"));
+  }
+
+  // only reached on the failure path, so the extra lookup does not cost the happy path anything
+  private RuntimeException mutationFailure(Long id, Long userId) {
+    return todoRepository.findDtoById(id)
+      .<RuntimeException>map(current -> current.getUserId().equals(userId)
+        ? new TodoConflictException(current)
+        : new RuntimeException("Access denied"))
+      .orElseGet(() -> new RuntimeException("Todo not found"));
+  }
+
+  private static Set<Long> duplicateIds(Stream<Long> ids) {
+    Set<Long> seen = new HashSet<>();
+    return ids.filter(id -> id != null && !seen.add(id)).collect(Collectors.toSet());
+  }
+
+  private static String ownershipError(TodoEntity todo, Long id, UserEntity currentUser) {
+    if (id == null || todo == null) {
+      return "Todo not found";
+    }
+    // the lazy user proxy already carries its id, so this does not load the user
+    if (!todo.getUser().getId().equals(currentUser.getId())) {
+      return "Access denied";
+    }
+    return null;
+  }
+
+  private static TodoChangeEvent.Type batchEventType(String operation) {
+    return switch (operation) {
+      case "create" -> TodoChangeEvent.Type.CREATED;
+      case "status" -> TodoChangeEvent.Type.STATUS;
+      default -> TodoChangeEvent.Type.UPDATED;
+    };
+  }
+
+  private static TodoBatchResultDTO success(String operation, int index, Long id) {
+    return TodoBatchResultDTO.builder().operation(operation).index(index).id(id).success(true).build();
+  }
+
+  private static TodoBatchResultDTO failure(String operation, int index, Long id, String error) {
+    return TodoBatchResultDTO.builder().operation(operation).index(index).id(id).success(false).error(error).build();
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+
+  private int pageSize(Integer requested) {
+    if (requested == null || requested <= 0) {
+      return defaultPageSize;
+    }
+    return Math.min(requested, maxPageSize);
+  }
+
+  // ranked results have no stable keyset, so search pages carry an opaque offset
+  private static String encodeOffset(int offset) {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(("o" + offset).getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static int decodeOffset(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return 0;
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      return Math.max(0, Integer.parseInt(raw.substring(1)));
+    } catch (RuntimeException ex) {
+      throw new InvalidCursorException();
+    }
+  }
+
+  // rows were fetched with pageSize + 1 to detect whether another page exists
+  private static TodoPageDTO toPage(List<TodoDTO> rows, int pageSize) {
+    boolean hasNext = rows.size() > pageSize;
+    List<TodoDTO> pageRows = hasNext ? rows.subList(0, pageSize) : rows;
+    String nextCursor = null;
+    if (hasNext) {
+      TodoDTO last = pageRows.get(pageRows.size() - 1);
+      nextCursor = new TodoCursor(last.getUpdatedAt(), last.getId()).encode();
+    }
+    return TodoPageDTO.builder()
+      .items(pageRows)
+      .nextCursor(nextCursor)
+      .hasNext(hasNext)
+      .build();
+  }
+
+  /**
+   * Convert Entity to DTO (package-private for TodoMappingBenchmark)
+   */
+  static TodoDTO toDTO(TodoEntity todo) {
+    return toDTO(todo, todo.getUser());
+  }
+
+  static TodoDTO toDTO(TodoEntity todo, UserEntity user) {
     return TodoDTO.builder()
       .id(todo.getId())
       .title(todo.getTitle())
@@ -230,14 +594,15 @@ public class TodoService {
       .status(todo.getStatus())
       .icon(todo.getIcon())
       .isFavorite(todo.getIsFavorite())
-      .userId(todo.getUser().getId())
-      .username(todo.getUser().getUsername())
+      .userId(user.getId())
+      .username(user.getUsername())
       .createdAt(todo.getCreatedAt())
       .updatedAt(todo.getUpdatedAt())
+      .version(todo.getVersion())
       .build();
   }
 
-    private TodoEntity toEntity(TodoDTO todoDTO, UserEntity user) {
+  static TodoEntity toEntity(TodoDTO todoDTO, UserEntity user) {
     return TodoEntity.builder()
       .title(todoDTO.getTitle())
       .description(todoDTO.getDescription())
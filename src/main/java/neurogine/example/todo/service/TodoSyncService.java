@@ -0,0 +1,208 @@
+package neurogine.example.todo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.LongFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import lombok.RequiredArgsConstructor;
+import neurogine.example.todo.dto.TodoChangesDTO;
+import neurogine.example.todo.dto.TodoDTO;
+import neurogine.example.todo.entity.SyncCounterEntity;
+import neurogine.example.todo.entity.TodoSyncEntity;
+import neurogine.example.todo.entity.UserEntity;
+import neurogine.example.todo.event.TodoChangeEvent;
+import neurogine.example.todo.exception.InvalidCursorException;
+import neurogine.example.todo.repository.SyncCounterRepository;
+import neurogine.example.todo.repository.TodoRepository;
+import neurogine.example.todo.repository.TodoStatusCount;
+import neurogine.example.todo.repository.TodoSyncRepository;
+
+/**
+ * Incremental sync for offline clients.
+ * Every todo change bumps the user's sync version inside the writing transaction and stamps the todo's
+ * todo_sync row with it; GET /todos/changes returns the rows after the client's cursor, by version then todo id.
+ * Versions come from a locked counter row rather than updatedAt, so clock skew and
+ * same-millisecond writes cannot reorder or hide changes.
+ */
+@Service
+@RequiredArgsConstructor
+public class TodoSyncService {
+
+  private final TodoSyncRepository todoSyncRepository;
+  private final SyncCounterRepository syncCounterRepository;
+  private final TodoRepository todoRepository;
+  private final UserService userService;
+  private final EntityManager entityManager;
+
+  @Value("${todo.sync.defaultSize:500}")
+  private int defaultPageSize;
+
+  @Value("${todo.sync.maxSize:2000}")
+  private int maxPageSize;
+
+  /**
+   * Record the change in the publishing transaction, just before it commits
+   */
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+  public void onTodoChanged(TodoChangeEvent event) {
+    // SELECT ... FOR UPDATE once per transaction; later events of a batch find the locked row in the session
+    SyncCounterEntity counter = entityManager.find(SyncCounterEntity.class, event.userId(),
+      LockModeType.PESSIMISTIC_WRITE);
+    if (counter == null) {
+      counter = syncCounterRepository.saveAndFlush(new SyncCounterEntity(event.userId(), 0L));
+      recount(counter);
+    }
+    counter.setVersion(counter.getVersion() + 1);
+    updateCounts(counter, event);
+
+    boolean deleted = event.type() == TodoChangeEvent.Type.DELETED;
+    // new todos get a row (batched insert), existing rows are re-stamped without a read
+    if (event.type() == TodoChangeEvent.Type.CREATED
+        || todoSyncRepository.stamp(event.todoId(), counter.getVersion(), deleted) == 0) {
+      entityManager.persist(TodoSyncEntity.builder()
+        .todoId(event.todoId())
+        .userId(event.userId())
+        .version(counter.getVersion())
+        .deleted(deleted)
+        .build());
+    }
+  }
+
+  // O(1) deltas from the before/after state; a recount already covers every change of the transaction
+  private void updateCounts(SyncCounterEntity counter, TodoChangeEvent event) {
+    if (counter.isRecounted()) {
+      return;
+    }
+    if (event.type() != TodoChangeEvent.Type.CREATED) {
+      counter.addCounts(event.previousStatus(), -1, Boolean.TRUE.equals(event.previousFavorite()) ? -1 : 0);
+    }
+    if (event.todo() != null) {
+      counter.addCounts(event.todo().getStatus(), 1, Boolean.TRUE.equals(event.todo().getIsFavorite()) ? 1 : 0);
+    }
+  }
+
+  // only for a missing counter row: one GROUP BY over (user_id, status), run after every change of the
+  // transaction, which it flushes first
+  private void recount(SyncCounterEntity counter) {
+    counter.setNewCount(0);
+    counter.setInProgressCount(0);
+    counter.setCompletedCount(0);
+    counter.setFavoriteCount(0);
+    for (TodoStatusCount row : todoRepository.countByStatus(counter.getUserId())) {
+      counter.addCounts(row.getStatus(), row.getTotal(), row.getFavorites() != null ? row.getFavorites() : 0);
+    }
+    counter.setRecounted(true);
+  }
+
+  /**
+   * Version of the current user's todo collection, which changes with every committed todo mutation,
+   * together with a read made in the same read-only transaction. The read gets the version, so it can build
+   * the collection ETag and skip the work on a match (returning null).
+   * One transaction means one database: with a read replica, separate transactions for the tag and the body
+   * may be served by different ones and pair a new tag with an old body.
+   */
+  @Transactional(readOnly = true)
+  public <T> Versioned<T> readVersioned(LongFunction<T> read) {
+    UserEntity currentUser = userService.getCurrentUser();
+    // read before the body, so a concurrent write can only make the tag stale, never too new
+    long version = syncCounterRepository.findById(currentUser.getId())
+      .map(SyncCounterEntity::getVersion)
+      .orElse(0L);
+    return new Versioned<>(version, read.apply(version));
+  }
+
+  public record Versioned<T>(long version, T value) {
+  }
+
+  /**
+   * Todos changed and deleted since the cursor, oldest change first.
+   * Without a cursor the first pages hold every todo of the user (initial sync).
+   */
+  @Transactional(readOnly = true)
+  public TodoChangesDTO getChanges(String since, Integer size) {
+    UserEntity currentUser = userService.getCurrentUser();
+    SyncCursor from = decodeCursor(since);
+    int pageSize = pageSize(size);
+
+    List<TodoSyncEntity> rows = todoSyncRepository.findPageAfter(
+      currentUser.getId(), from.version(), from.todoId(), Limit.of(pageSize + 1));
+    boolean hasMore = rows.size() > pageSize;
+    if (hasMore) {
+      rows = rows.subList(0, pageSize);
+    }
+
+    List<Long> changedIds = new ArrayList<>();
+    List<Long> deleted = new ArrayList<>();
+    for (TodoSyncEntity row : rows) {
+      if (row.getDeleted()) {
+        deleted.add(row.getTodoId());
+      } else {
+        changedIds.add(row.getTodoId());
+      }
+    }
+    // a todo deleted after the change-log read simply shows up as a tombstone on the next sync
+    List<TodoDTO> changed = changedIds.isEmpty() ? List.of() : todoRepository.findDtosByIds(changedIds);
+
+    SyncCursor next = rows.isEmpty() ? from : new SyncCursor(rows.get(rows.size() - 1));
+    return TodoChangesDTO.builder()
+      .changed(changed)
+      .deleted(deleted)
+      .cursor(encodeCursor(next))
+      .hasMore(hasMore)
+      .build();
+  }
+
+  private int pageSize(Integer requested) {
+    if (requested == null || requested <= 0) {
+      return defaultPageSize;
+    }
+    return Math.min(requested, maxPageSize);
+  }
+
+  /**
+   * Position in the change log: the last row returned, by version and then todo id
+   */
+  private record SyncCursor(long version, long todoId) {
+
+    SyncCursor(TodoSyncEntity row) {
+      this(row.getVersion(), row.getTodoId());
+    }
+  }
+
+  private static String encodeCursor(SyncCursor cursor) {
+    String raw = "v" + cursor.version() + ":" + cursor.todoId();
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  // "v<version>:<todoId>"; a bare "v<version>" from before todo ids were added means after that whole version
+  private static SyncCursor decodeCursor(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return new SyncCursor(0, 0);
+    }
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      if (!decoded.startsWith("v")) {
+        throw new InvalidCursorException();
+      }
+      int separator = decoded.indexOf(':');
+      if (separator < 0) {
+        return new SyncCursor(Long.parseLong(decoded.substring(1)), Long.MAX_VALUE);
+      }
+      return new SyncCursor(Long.parseLong(decoded.substring(1, separator)),
+        Long.parseLong(decoded.substring(separator + 1)));
+    } catch (IllegalArgumentException ex) {
+      throw new InvalidCursorException();
+    }
+  }
+}
@@ -10,11 +10,17 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import neurogine.example.todo.dto.AuthDTO;
 import neurogine.example.todo.dto.UserDTO;
+import neurogine.example.todo.entity.SyncCounterEntity;
 import neurogine.example.todo.entity.UserEntity;
+import neurogine.example.todo.repository.SyncCounterRepository;
 import neurogine.example.todo.repository.UserRepositroy;
+import neurogine.example.todo.security.PrincipalCache;
+import neurogine.example.todo.security.TokenRevocations;
 import neurogine.example.todo.util.JwtUtil;
 
 @Service
@@ -25,12 +31,17 @@ public class UserService {
   private final PasswordEncoder passwordEncoder;
   private final AuthenticationManager authenticationManager;
   private final JwtUtil jwtUtil;
+  private final PrincipalCache principalCache;
+  private final SyncCounterRepository syncCounterRepository;
+  private final TokenRevocations tokenRevocations;
 
   public UserDTO registerProfile(UserDTO userDTO) {
 
     UserEntity newUser = toEntity(userDTO);
     newUser.setIsActive(true); // Activate the account upon registration
     newUser = userRepositroy.save(newUser);
+    // sync versions start at 0 for GET /todos/changes
+    syncCounterRepository.save(new SyncCounterEntity(newUser.getId(), 0L));
     return toDTO(newUser);
   }
 
@@ -63,7 +74,7 @@ public class UserService {
 
   public UserEntity getCurrentUser() {
     Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-    return userRepositroy.findByEmail(authentication.getName())
+    return principalCache.get(authentication.getName())
       .orElseThrow(() -> new UsernameNotFoundException("User not found"));
   }
 
@@ -73,7 +84,7 @@ public class UserService {
     if (email == null) {
       currentUser = getCurrentUser();
     } else {
-      currentUser = userRepositroy.findByEmail(email)
+      currentUser = principalCache.get(email)
         .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
 
@@ -86,6 +97,7 @@ public class UserService {
       .build();
   }
 
+  @Timed(value = "todo.auth.login", description = "Credential check and token issue")
   public Map<String, Object> authenticateAndGenerateToken(AuthDTO authDTO){
     try {
       authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(
@@ -95,13 +107,54 @@ public class UserService {
       String token = jwtUtil.generateToken(authDTO.getEmail());
       return Map.of(
         "user", getUserProfile(authDTO.getEmail()),
-        "token", token
+        "token", token,
+        "refreshToken", jwtUtil.generateRefreshToken(authDTO.getEmail())
       );
     } catch (Exception e) {
       throw new RuntimeException("Invalid Credentials" + e.getMessage());
     }
   }
 
+  /**
+   * New access token for a valid refresh token, without the password hash of a login.
+   * Refresh tokens are single-use: the presented one is revoked and a new one is returned with the access token.
+   */
+  @Timed(value = "todo.auth.refresh", description = "Refresh token exchange")
+  public Map<String, Object> refreshToken(String refreshToken) {
+    Claims claims = jwtUtil.verifyToken(refreshToken);
+    if (claims == null || !JwtUtil.isRefreshToken(claims) || tokenRevocations.isRevoked(claims)) {
+      throw new RuntimeException("Invalid refresh token");
+    }
+    String email = claims.getSubject();
+    boolean active = principalCache.get(email)
+      .map(UserEntity::getIsActive)
+      .orElse(false);
+    // check and revoke in one step: of two concurrent exchanges of the same token only one wins
+    if (!active || !tokenRevocations.claim(claims)) {
+      throw new RuntimeException("Invalid refresh token");
+    }
+
+    return Map.of(
+      "token", jwtUtil.generateToken(email),
+      "refreshToken", jwtUtil.generateRefreshToken(email)
+    );
+  }
+
+  /**
+   * Revoke the access token of the request and, when given, the refresh token of the same user
+   */
+  public void logout(String accessToken, String refreshToken) {
+    Claims access = jwtUtil.verifyToken(accessToken);
+    if (access == null) {
+      return;
+    }
+    tokenRevocations.revoke(access);
+    Claims refresh = jwtUtil.verifyToken(refreshToken);
+    if (refresh != null && access.getSubject().equals(refresh.getSubject())) {
+      tokenRevocations.revoke(refresh);
+    }
+  }
+
 
   
 
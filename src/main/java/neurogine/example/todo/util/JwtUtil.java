@@ -1,17 +1,33 @@
 package neurogine.example.todo.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
@@ -20,26 +36,117 @@ public class JwtUtil {
 	@Value("${jwt.secret:changeit_changeit_changeit_changeit}")
 	private String jwtSecret;
 
-	@Value("${jwt.expirationMinutes:60}")
+	// short-lived access tokens; clients renew them with the refresh token instead of logging in again
+	@Value("${jwt.expirationMinutes:15}")
 	private long expirationMinutes;
 
+	@Value("${jwt.refreshExpirationDays:14}")
+	private long refreshExpirationDays;
+
+	@Value("${jwt.claimsCacheSize:10000}")
+	private long claimsCacheSize;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	// token type claim; tokens without it predate refresh tokens and are access tokens
+	private static final String TOKEN_TYPE = "typ";
+	private static final String REFRESH = "refresh";
+	private static final String ACCESS = "access";
+	// issue time in epoch milliseconds; iat has whole seconds only
+	private static final String ISSUED_AT_MILLIS = "iat_ms";
+
+	// built once at startup; both are immutable and thread-safe
+	private SecretKey key;
+	private JwtParser parser;
+
+	// token digest -> verified claims, each entry expires together with its token
+	private Cache<String, Claims> claimsCache;
+
+	// todo.jwt{operation=sign|verify}: verify only covers cache misses, i.e. the actual signature check
+	private Timer signTimer;
+	private Timer verifyTimer;
+	private Counter rejected;
+
+	@PostConstruct
+	void init() {
+		key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+		parser = Jwts.parser()
+				.verifyWith(key)
+				.build();
+		claimsCache = Caffeine.newBuilder()
+				.maximumSize(claimsCacheSize)
+				.expireAfter(Expiry.creating((String digest, Claims claims) -> timeToExpiry(claims)))
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, claimsCache, "jwtClaims");
+		signTimer = timer("sign");
+		verifyTimer = timer("verify");
+		rejected = Counter.builder("todo.jwt.rejected")
+				.description("Expired, tampered or malformed tokens")
+				.register(meterRegistry);
+	}
+
 	/**
-	 * Generate a signed JWT with subject (email or user id)
+	 * Generate a signed access JWT with subject (email or user id)
 	 */
 	public String generateToken(String subject) {
+		return sign(subject, ACCESS, Duration.ofMinutes(expirationMinutes));
+	}
+
+	/**
+	 * Generate a long-lived refresh JWT, only accepted by the refresh endpoint
+	 */
+	public String generateRefreshToken(String subject) {
+		return sign(subject, REFRESH, Duration.ofDays(refreshExpirationDays));
+	}
+
+	public static boolean isRefreshToken(Claims claims) {
+		return REFRESH.equals(claims.get(TOKEN_TYPE, String.class));
+	}
+
+	/**
+	 * Issue time in milliseconds, or null for tokens that predate the claim (iat only)
+	 */
+	public static Instant issuedAtMillis(Claims claims) {
+		Long millis = claims.get(ISSUED_AT_MILLIS, Long.class);
+		return millis != null ? Instant.ofEpochMilli(millis) : null;
+	}
+
+	// every token gets an id (jti) so it can be revoked individually
+	private String sign(String subject, String type, Duration lifetime) {
 		if (subject == null) {
 			throw new IllegalArgumentException("JWT subject cannot be null");
 		}
 
-		SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
 		Instant now = Instant.now();
 
-		return Jwts.builder()
+		return signTimer.record(() -> Jwts.builder()
+			.id(UUID.randomUUID().toString())
 			.subject(subject)
+			.claim(TOKEN_TYPE, type)
+			.claim(ISSUED_AT_MILLIS, now.toEpochMilli())
 			.issuedAt(Date.from(now))
-			.expiration(Date.from(now.plus(Duration.ofMinutes(expirationMinutes))))
+			.expiration(Date.from(now.plus(lifetime)))
 			.signWith(key)
-				.compact();
+				.compact());
+	}
+
+	/**
+	 * Verify signature and expiration once and return the claims, or null if the token is invalid.
+	 * Verified tokens are cached until they expire, so repeat calls skip the crypto entirely.
+	 */
+	public Claims verifyToken(String token) {
+		if (token == null || token.isBlank()) {
+			return null;
+		}
+		try {
+			return claimsCache.get(digest(token), d -> parseAndVerify(token));
+		} catch (JwtException | IllegalArgumentException ex) {
+			// expired, tampered or malformed tokens are never cached
+			rejected.increment();
+			return null;
+		}
 	}
 
 	/**
@@ -50,58 +157,56 @@ public class JwtUtil {
 	}
 
 	/**
-	 * Parse token and return subject (email/user id)
+	 * Return subject (email/user id) of a valid token, or null if the token is invalid
 	 */
 	public String getSubjectFromToken(String token) {
-		SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-		// parsed and verified using the secret key, ensuring the signature is valid and the token has not been tampered with
-		Claims claims = Jwts.parser()
-				.verifyWith(key)
-				.build()
-				.parseSignedClaims(token)
-				.getPayload();
-		return claims.getSubject();
-	}
-
-	// Check if token is expired by comparing expiration date with current date
-	// Expired tokens are rejected to prevent replay attacks
-	private boolean isTokenExpired(String token) {
-		try {
-			SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-			Claims claims = Jwts.parser()
-					.verifyWith(key)
-					.build()
-					.parseSignedClaims(token)
-					.getPayload();
-
-			Date expiration = claims.getExpiration();
-			return expiration.before(new Date());
-		} catch (io.jsonwebtoken.ExpiredJwtException ex) {
-			return true;
-		}
+		Claims claims = verifyToken(token);
+		return claims != null ? claims.getSubject() : null;
 	}
 
 	/**
 	 * Validate token — checks signature, expiration, and username match
 	 */
 	public boolean validateToken(String token, UserDetails userDetails) {
-		try {
-			final String username = getSubjectFromToken(token);
-			return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
-		} catch (Exception ex) {
-			return false;
-		}
+		Claims claims = verifyToken(token);
+		return claims != null && userDetails.getUsername().equals(claims.getSubject());
 	}
 
 	/**
 	 * Simplified validation (just checks token integrity & expiration)
 	 */
 	public boolean validateToken(String token) {
+		return verifyToken(token) != null;
+	}
+
+	// parsed and verified using the secret key, ensuring the signature is valid and the token has not been tampered with
+	// expired tokens are rejected by the parser (ExpiredJwtException) to prevent replay attacks
+	Claims parseAndVerify(String token) {
+		return verifyTimer.record(() -> parser.parseSignedClaims(token).getPayload());
+	}
+
+	private Timer timer(String operation) {
+		return Timer.builder("todo.jwt")
+				.description("JWT signing and signature verification")
+				.tag("operation", operation)
+				.register(meterRegistry);
+	}
+
+	private static Duration timeToExpiry(Claims claims) {
+		Date expiration = claims.getExpiration();
+		if (expiration == null) {
+			return Duration.ZERO;
+		}
+		Duration remaining = Duration.between(Instant.now(), expiration.toInstant());
+		return remaining.isNegative() ? Duration.ZERO : remaining;
+	}
+
+	private static String digest(String token) {
 		try {
-			getSubjectFromToken(token); // will throw if invalid
-			return !isTokenExpired(token);
-		} catch (Exception ex) {
-			return false;
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+			return Base64.getEncoder().encodeToString(hash);
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException("SHA-256 not available", ex);
 		}
 	}
 }
@@ -0,0 +1,27 @@
+package neurogine.example.todo.util;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Tokenizer shared by the database full-text query and the in-memory search index.
+ */
+public final class SearchTerms {
+
+  private SearchTerms() {
+  }
+
+  /**
+   * Lowercased runs of letters and digits; punctuation and full-text operators are dropped
+   */
+  public static List<String> tokenize(String text) {
+    if (text == null) {
+      return List.of();
+    }
+    return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+        .filter(term -> !term.isEmpty())
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,38 @@
+package neurogine.example.todo.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import neurogine.example.todo.exception.InvalidCursorException;
+
+/**
+ * Keyset position (updatedAt, id) for todo lists ordered newest first.
+ * Encoded as an opaque URL-safe string for clients.
+ */
+public record TodoCursor(LocalDateTime updatedAt, Long id) {
+
+  /** Position before the first row: every todo sorts after it */
+  public static final TodoCursor START = new TodoCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+  public String encode() {
+    String raw = updatedAt + "|" + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decode a client cursor, null or blank means first page
+   */
+  public static TodoCursor decode(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return START;
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separator = raw.lastIndexOf('|');
+      return new TodoCursor(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+    } catch (RuntimeException ex) {
+      throw new InvalidCursorException();
+    }
+  }
+}
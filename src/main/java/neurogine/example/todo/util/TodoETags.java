@@ -0,0 +1,86 @@
+package neurogine.example.todo.util;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+/**
+ * Entity tags for todo reads.
+ * A single todo has a strong tag, its optimistic-locking version plus the representation (json or cbor, as
+ * negotiated from Accept), since a strong tag names one exact body. If-Match compares the version on writes,
+ * whatever the representation.
+ * Collections have a weak tag from the user's sync version, which every todo mutation bumps, plus the query
+ * parameters that shape the page: the same page may go out as JSON or CBOR, gzipped or not, and Tomcat
+ * only compresses responses whose tag is weak.
+ */
+public final class TodoETags {
+
+  // If-Match that can never be satisfied (weak or foreign tag), so the conditional update fails
+  private static final long NO_MATCH = -1;
+
+  private TodoETags() {
+  }
+
+  public static String forTodo(Long id, Long version, String accept) {
+    return "\"" + id + "-" + version + "-" + representation(accept) + "\"";
+  }
+
+  /**
+   * "cbor" when the Accept header makes content negotiation pick application/cbor, otherwise "json":
+   * the most preferred type, exact types before wildcards, decides
+   */
+  static String representation(String accept) {
+    List<MediaType> types;
+    try {
+      types = accept == null || accept.isBlank() ? List.of() : MediaType.parseMediaTypes(accept);
+    } catch (InvalidMediaTypeException e) {
+      return "json";
+    }
+    MediaType best = null;
+    for (MediaType type : types) {
+      if (type.getQualityValue() == 0
+          || (!type.isCompatibleWith(MediaType.APPLICATION_JSON) && !type.isCompatibleWith(MediaType.APPLICATION_CBOR))) {
+        continue;
+      }
+      if (best == null || type.getQualityValue() > best.getQualityValue()
+          || (type.getQualityValue() == best.getQualityValue() && best.isWildcardSubtype() && !type.isWildcardSubtype())) {
+        best = type;
+      }
+    }
+    return best != null && MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(best) ? "cbor" : "json";
+  }
+
+  public static String forCollection(String kind, long version, Object... params) {
+    return "W/\"" + kind + "-" + Long.toHexString(version) + "-" + Integer.toHexString(Objects.hash(params)) + "\"";
+  }
+
+  /**
+   * Version a write must still find, taken from If-Match; null when there is no header or it is "*".
+   * Strong comparison: weak tags and tags of other todos never match.
+   */
+  public static Long expectedVersion(String ifMatch, Long id) {
+    if (ifMatch == null || ifMatch.isBlank()) {
+      return null;
+    }
+    String prefix = "\"" + id + "-";
+    for (String tag : ifMatch.split(",")) {
+      tag = tag.trim();
+      if (tag.equals("*")) {
+        return null;
+      }
+      if (tag.startsWith(prefix) && tag.endsWith("\"")) {
+        // "<id>-<version>-<representation>", or "<id>-<version>" as tagged before representations
+        String version = tag.substring(prefix.length(), tag.length() - 1);
+        int representation = version.indexOf('-');
+        try {
+          return Long.parseLong(representation < 0 ? version : version.substring(0, representation));
+        } catch (NumberFormatException e) {
+          return NO_MATCH;
+        }
+      }
+    }
+    return NO_MATCH;
+  }
+}
@@ -0,0 +1,35 @@
+-- Schema as previously generated by spring.jpa.hibernate.ddl-auto.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate) and skip it.
+
+CREATE TABLE users (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  username VARCHAR(255),
+  email VARCHAR(255),
+  password VARCHAR(255),
+  created_at DATETIME(6),
+  updated_at DATETIME(6),
+  is_active BIT NOT NULL,
+  PRIMARY KEY (id),
+  CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE todos (
+  id BIGINT NOT NULL,
+  title VARCHAR(255) NOT NULL,
+  description TEXT,
+  icon VARCHAR(255),
+  is_favorite BIT NOT NULL,
+  status ENUM ('COMPLETED', 'IN_PROGRESS', 'NEW') NOT NULL,
+  user_id BIGINT NOT NULL,
+  created_at DATETIME(6),
+  updated_at DATETIME(6),
+  PRIMARY KEY (id),
+  CONSTRAINT fk_todos_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+-- table-emulated sequence behind TodoEntity.id (allocationSize 50)
+CREATE TABLE todos_seq (
+  next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO todos_seq VALUES (1);
@@ -0,0 +1,31 @@
+-- One composite index per TodoRepository access pattern. Each ends in (updated_at, id) so the keyset
+-- pages (ORDER BY updated_at DESC, id DESC) are read straight from the index without a filesort.
+
+-- findPage, stream/loader queries, LIKE search
+CREATE INDEX idx_todos_user_updated ON todos (user_id, updated_at, id);
+
+-- findPageByStatus, countByStatus
+CREATE INDEX idx_todos_user_status_updated ON todos (user_id, status, updated_at, id);
+
+-- findFavoritePage
+CREATE INDEX idx_todos_user_favorite_updated ON todos (user_id, is_favorite, updated_at, id);
+
+-- full-text index used by TodoSearchRepositoryImpl; databases set up before migrations may already have it
+SET @ddl = IF(
+  (SELECT COUNT(*) FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'todos' AND index_name = 'ft_todos_title_description') = 0,
+  'CREATE FULLTEXT INDEX ft_todos_title_description ON todos (title, description)',
+  'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- databases baselined at V1 never ran it, so todos_seq may not exist yet
+CREATE TABLE IF NOT EXISTS todos_seq (
+  next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO todos_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT * FROM todos_seq);
+
+-- move todos_seq past ids handed out by the former IDENTITY column
+UPDATE todos_seq SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 51 FROM todos));
@@ -0,0 +1,2 @@
+-- optimistic-locking version of TodoEntity (@Version)
+ALTER TABLE todos ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,12 @@
+-- Counters behind GET /todos/statistics, kept on the sync counter row and updated in the writing transaction
+
+ALTER TABLE sync_counters ADD COLUMN new_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE sync_counters ADD COLUMN in_progress_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE sync_counters ADD COLUMN completed_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE sync_counters ADD COLUMN favorite_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE sync_counters SET
+  new_count = (SELECT COUNT(*) FROM todos t WHERE t.user_id = sync_counters.user_id AND t.status = 'NEW'),
+  in_progress_count = (SELECT COUNT(*) FROM todos t WHERE t.user_id = sync_counters.user_id AND t.status = 'IN_PROGRESS'),
+  completed_count = (SELECT COUNT(*) FROM todos t WHERE t.user_id = sync_counters.user_id AND t.status = 'COMPLETED'),
+  favorite_count = (SELECT COUNT(*) FROM todos t WHERE t.user_id = sync_counters.user_id AND t.is_favorite = 1);
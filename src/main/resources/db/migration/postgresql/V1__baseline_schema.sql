@@ -0,0 +1,31 @@
+-- Schema as previously generated by spring.jpa.hibernate.ddl-auto.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate) and skip it.
+
+CREATE TABLE users (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+  username VARCHAR(255),
+  email VARCHAR(255),
+  password VARCHAR(255),
+  created_at TIMESTAMP(6),
+  updated_at TIMESTAMP(6),
+  is_active BOOLEAN NOT NULL,
+  PRIMARY KEY (id),
+  CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE todos (
+  id BIGINT NOT NULL,
+  title VARCHAR(255) NOT NULL,
+  description TEXT,
+  icon VARCHAR(255),
+  is_favorite BOOLEAN NOT NULL,
+  status VARCHAR(255) NOT NULL CHECK (status IN ('NEW', 'IN_PROGRESS', 'COMPLETED')),
+  user_id BIGINT NOT NULL,
+  created_at TIMESTAMP(6),
+  updated_at TIMESTAMP(6),
+  PRIMARY KEY (id),
+  CONSTRAINT fk_todos_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+-- sequence behind TodoEntity.id (allocationSize 50)
+CREATE SEQUENCE todos_seq START WITH 1 INCREMENT BY 50;
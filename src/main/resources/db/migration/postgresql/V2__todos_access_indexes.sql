@@ -0,0 +1,22 @@
+-- One composite index per TodoRepository access pattern. Each ends in (updated_at, id) so the keyset
+-- pages (ORDER BY updated_at DESC, id DESC) are read straight from the index without a sort.
+-- Postgres does not index foreign keys by itself; idx_todos_user_updated also covers user_id lookups.
+
+-- findPage, stream/loader queries, LIKE search
+CREATE INDEX IF NOT EXISTS idx_todos_user_updated ON todos (user_id, updated_at, id);
+
+-- findPageByStatus, countByStatus
+CREATE INDEX IF NOT EXISTS idx_todos_user_status_updated ON todos (user_id, status, updated_at, id);
+
+-- findFavoritePage
+CREATE INDEX IF NOT EXISTS idx_todos_user_favorite_updated ON todos (user_id, is_favorite, updated_at, id);
+
+-- full-text index used by TodoSearchRepositoryImpl, must match its to_tsvector expression
+CREATE INDEX IF NOT EXISTS ft_todos_title_description ON todos
+  USING gin (to_tsvector('simple', coalesce(title, '') || ' ' || coalesce(description, '')));
+
+-- databases baselined at V1 never ran it, so todos_seq may not exist yet
+CREATE SEQUENCE IF NOT EXISTS todos_seq START WITH 1 INCREMENT BY 50;
+
+-- move todos_seq past ids handed out by the former IDENTITY column
+SELECT setval('todos_seq', GREATEST((SELECT last_value FROM todos_seq), (SELECT COALESCE(MAX(id), 0) + 50 FROM todos)));
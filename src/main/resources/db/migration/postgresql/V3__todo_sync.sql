@@ -0,0 +1,21 @@
+-- Change log for GET /todos/changes: per-user sync versions and one row per todo (tombstone once deleted)
+
+CREATE TABLE sync_counters (
+  user_id BIGINT NOT NULL,
+  version BIGINT NOT NULL,
+  PRIMARY KEY (user_id)
+);
+
+CREATE TABLE todo_sync (
+  todo_id BIGINT NOT NULL,
+  user_id BIGINT NOT NULL,
+  version BIGINT NOT NULL,
+  deleted BOOLEAN NOT NULL,
+  PRIMARY KEY (todo_id)
+);
+
+CREATE INDEX idx_todo_sync_user_version ON todo_sync (user_id, version);
+
+-- existing todos are all reported by the first sync at version 1
+INSERT INTO sync_counters (user_id, version) SELECT id, 1 FROM users;
+INSERT INTO todo_sync (todo_id, user_id, version, deleted) SELECT id, user_id, 1, false FROM todos;
@@ -0,0 +1,4 @@
+-- Sync pages are keyed on (version, todo_id): V3 stamped every existing todo with version 1, so the version
+-- alone cannot tell where a page of the initial sync ended. todo_id joins the index to keep pages index-only.
+DROP INDEX idx_todo_sync_user_version;
+CREATE INDEX idx_todo_sync_user_version ON todo_sync (user_id, version, todo_id);
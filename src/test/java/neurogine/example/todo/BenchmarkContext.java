@@ -0,0 +1,66 @@
+package neurogine.example.todo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application context for JMH benchmarks and load tests that need the database.
+ * Defaults to an in-memory H2 in MySQL mode; point it at a real database with
+ * -Dbench.datasource.url=... -Dbench.datasource.username=... -Dbench.datasource.password=...
+ * (blank values count as unset: the benchmark and loadtest profiles always pass all three).
+ * On H2 the schema comes from the entities (create-drop, H2Dialect, no Flyway), so the migrations' indexes and
+ * the vendors' full-text search are not part of the measurement: H2 numbers compare code paths, not databases.
+ */
+public final class BenchmarkContext {
+
+  private BenchmarkContext() {
+  }
+
+  /**
+   * Context without a web server
+   */
+  public static ConfigurableApplicationContext start(String... extraArgs) {
+    return new SpringApplicationBuilder(TodoApplication.class)
+        .web(WebApplicationType.NONE)
+        .run(arguments(extraArgs));
+  }
+
+  /**
+   * Context with the embedded web server on a random port (local.server.port)
+   */
+  public static ConfigurableApplicationContext startServer(String... extraArgs) {
+    List<String> args = new ArrayList<>(List.of("--server.port=0"));
+    args.addAll(List.of(extraArgs));
+    return new SpringApplicationBuilder(TodoApplication.class)
+        .web(WebApplicationType.SERVLET)
+        .run(arguments(args.toArray(String[]::new)));
+  }
+
+  private static String[] arguments(String... extraArgs) {
+    String url = property("bench.datasource.url", "jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1");
+    List<String> args = new ArrayList<>(List.of(
+        "--spring.datasource.url=" + url,
+        "--spring.datasource.username=" + property("bench.datasource.username", "sa"),
+        "--spring.datasource.password=" + property("bench.datasource.password", ""),
+        "--spring.jpa.show-sql=false"));
+    if (url.startsWith("jdbc:h2:")) {
+      args.add("--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect");
+      args.add("--spring.flyway.enabled=false");
+      args.add("--spring.jpa.hibernate.ddl-auto=create-drop");
+    }
+    args.addAll(List.of(extraArgs));
+    return args.toArray(String[]::new);
+  }
+
+  /**
+   * System property, with blank treated as unset
+   */
+  public static String property(String name, String defaultValue) {
+    String value = System.getProperty(name);
+    return value == null || value.isBlank() ? defaultValue : value;
+  }
+}
@@ -0,0 +1,155 @@
+package neurogine.example.todo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Migrations on a database created by the old spring.jpa.hibernate.ddl-auto=update, which Flyway baselines
+ * at V1: no todos_seq, IDENTITY ids already handed out. The test profile runs on H2 with Flyway disabled,
+ * and the vendor scripts need the real databases, so each test runs only against a throwaway database
+ * given on the command line (it is wiped first):
+ * mvn test -Dtest=FlywayMigrationTests -Dtodo.migration.mysql.url=jdbc:mysql://localhost:3306/todo_migration
+ *   -Dtodo.migration.postgresql.url=jdbc:postgresql://localhost:5432/todo_migration
+ *   -Dtodo.migration.username=... -Dtodo.migration.password=...
+ */
+class FlywayMigrationTests {
+
+  private static final long LAST_IDENTITY_ID = 120;
+
+  @Test
+  @EnabledIfSystemProperty(named = "todo.migration.mysql.url", matches = ".+")
+  void mysqlMigratesABaselinedDatabase() throws SQLException {
+    String url = System.getProperty("todo.migration.mysql.url");
+    migrateBaselined(url, "mysql", """
+        CREATE TABLE users (
+          id BIGINT NOT NULL AUTO_INCREMENT,
+          username VARCHAR(255),
+          email VARCHAR(255),
+          password VARCHAR(255),
+          created_at DATETIME(6),
+          updated_at DATETIME(6),
+          is_active BIT NOT NULL,
+          PRIMARY KEY (id),
+          CONSTRAINT uk_users_email UNIQUE (email)
+        ) ENGINE = InnoDB""", """
+        CREATE TABLE todos (
+          id BIGINT NOT NULL AUTO_INCREMENT,
+          title VARCHAR(255) NOT NULL,
+          description TEXT,
+          icon VARCHAR(255),
+          is_favorite BIT NOT NULL,
+          status ENUM ('COMPLETED', 'IN_PROGRESS', 'NEW') NOT NULL,
+          user_id BIGINT NOT NULL,
+          created_at DATETIME(6),
+          updated_at DATETIME(6),
+          PRIMARY KEY (id),
+          CONSTRAINT fk_todos_user FOREIGN KEY (user_id) REFERENCES users (id)
+        ) ENGINE = InnoDB""");
+
+    try (Connection connection = connect(url)) {
+      // table-emulated sequence: next_val is the next id Hibernate hands out
+      assertTrue(queryLong(connection, "SELECT next_val FROM todos_seq") > LAST_IDENTITY_ID);
+      assertEquals(1, queryLong(connection, "SELECT COUNT(*) FROM todos_seq"));
+      assertStatistics(connection);
+    }
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = "todo.migration.postgresql.url", matches = ".+")
+  void postgresqlMigratesABaselinedDatabase() throws SQLException {
+    String url = System.getProperty("todo.migration.postgresql.url");
+    migrateBaselined(url, "postgresql", """
+        CREATE TABLE users (
+          id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+          username VARCHAR(255),
+          email VARCHAR(255),
+          password VARCHAR(255),
+          created_at TIMESTAMP(6),
+          updated_at TIMESTAMP(6),
+          is_active BOOLEAN NOT NULL,
+          PRIMARY KEY (id),
+          CONSTRAINT uk_users_email UNIQUE (email)
+        )""", """
+        CREATE TABLE todos (
+          id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+          title VARCHAR(255) NOT NULL,
+          description TEXT,
+          icon VARCHAR(255),
+          is_favorite BOOLEAN NOT NULL,
+          status VARCHAR(255) NOT NULL CHECK (status IN ('NEW', 'IN_PROGRESS', 'COMPLETED')),
+          user_id BIGINT NOT NULL,
+          created_at TIMESTAMP(6),
+          updated_at TIMESTAMP(6),
+          PRIMARY KEY (id),
+          CONSTRAINT fk_todos_user FOREIGN KEY (user_id) REFERENCES users (id)
+        )""");
+
+    try (Connection connection = connect(url)) {
+      assertTrue(queryLong(connection, "SELECT nextval('todos_seq')") > LAST_IDENTITY_ID);
+      assertStatistics(connection);
+    }
+  }
+
+  // builds the pre-Flyway schema with a few todos, then runs every migration the way the application does
+  private static void migrateBaselined(String url, String vendor, String usersTable, String todosTable)
+      throws SQLException {
+    Flyway flyway = Flyway.configure()
+        .dataSource(url, username(), password())
+        .locations("classpath:db/migration/" + vendor)
+        .baselineOnMigrate(true)
+        .baselineVersion("1")
+        .cleanDisabled(false)
+        .load();
+    flyway.clean();
+
+    try (Connection connection = connect(url); Statement statement = connection.createStatement()) {
+      statement.execute(usersTable);
+      statement.execute(todosTable);
+      statement.execute("INSERT INTO users (id, username, email, password, is_active)"
+          + " VALUES (1, 'legacy', 'legacy@example.com', 'n/a', true)");
+      statement.execute("INSERT INTO todos (id, title, is_favorite, status, user_id) VALUES"
+          + " (1, 'first', true, 'NEW', 1), (2, 'second', false, 'COMPLETED', 1),"
+          + " (" + LAST_IDENTITY_ID + ", 'last', false, 'NEW', 1)");
+    }
+
+    flyway.migrate();
+    assertEquals(0, flyway.info().pending().length);
+  }
+
+  // V3 gives the legacy user a counter row, V5 backfills its statistics
+  private static void assertStatistics(Connection connection) throws SQLException {
+    String counters = "SELECT %s FROM sync_counters WHERE user_id = 1";
+    assertEquals(2, queryLong(connection, counters.formatted("new_count")));
+    assertEquals(1, queryLong(connection, counters.formatted("completed_count")));
+    assertEquals(1, queryLong(connection, counters.formatted("favorite_count")));
+  }
+
+  private static long queryLong(Connection connection, String sql) throws SQLException {
+    try (Statement statement = connection.createStatement(); ResultSet result = statement.executeQuery(sql)) {
+      assertTrue(result.next());
+      return result.getLong(1);
+    }
+  }
+
+  private static Connection connect(String url) throws SQLException {
+    return DriverManager.getConnection(url, username(), password());
+  }
+
+  private static String username() {
+    return System.getProperty("todo.migration.username", "root");
+  }
+
+  private static String password() {
+    return System.getProperty("todo.migration.password", "");
+  }
+}
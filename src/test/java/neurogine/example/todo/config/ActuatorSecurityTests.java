@@ -0,0 +1,69 @@
+package neurogine.example.todo.config;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import neurogine.example.todo.entity.UserEntity;
+import neurogine.example.todo.repository.UserRepositroy;
+import neurogine.example.todo.util.JwtUtil;
+
+/**
+ * Server-wide metrics are for the scrape credential only; user tokens never open them.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ActuatorSecurityTests {
+
+  @Autowired
+  private WebApplicationContext context;
+
+  @Autowired
+  private JwtUtil jwtUtil;
+
+  @Autowired
+  private UserRepositroy userRepository;
+
+  private MockMvc mockMvc;
+
+  // built by hand rather than with @AutoConfigureMockMvc, so the test shares the cached context of the others
+  @BeforeEach
+  void setUp() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+  }
+
+  @Test
+  void healthIsPublic() throws Exception {
+    mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+  }
+
+  @Test
+  void metricsNeedTheScrapeCredential() throws Exception {
+    mockMvc.perform(get("/actuator/metrics")).andExpect(status().isUnauthorized());
+    mockMvc.perform(get("/actuator/metrics").with(httpBasic("scraper", "wrong"))).andExpect(status().isUnauthorized());
+    mockMvc.perform(get("/actuator/metrics").with(httpBasic("scraper", "scrape-secret"))).andExpect(status().isOk());
+  }
+
+  @Test
+  void userTokensDoNotOpenMetrics() throws Exception {
+    String email = "tenant-" + UUID.randomUUID() + "@example.com";
+    userRepository.save(UserEntity.builder().username("tenant").email(email).password("n/a").isActive(true).build());
+
+    mockMvc.perform(get("/actuator/metrics")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken(email)))
+        .andExpect(status().isUnauthorized());
+  }
+}
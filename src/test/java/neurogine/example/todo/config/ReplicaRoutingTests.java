@@ -0,0 +1,172 @@
+package neurogine.example.todo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.zaxxer.hikari.HikariDataSource;
+
+import neurogine.example.todo.dto.TodoDTO;
+import neurogine.example.todo.entity.SyncCounterEntity;
+import neurogine.example.todo.entity.UserEntity;
+import neurogine.example.todo.repository.SyncCounterRepository;
+import neurogine.example.todo.repository.UserRepositroy;
+import neurogine.example.todo.service.TodoService;
+
+/**
+ * Two embedded databases stand in for primary and replica. "Replication" is an explicit snapshot of the primary,
+ * so a read that sees only the snapshot was served by the replica.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=" + ReplicaRoutingTests.PRIMARY_URL,
+    "todo.db.replica.enabled=true",
+    "todo.db.replica.datasource.jdbc-url=" + ReplicaRoutingTests.REPLICA_URL,
+    "todo.db.replica.readYourWritesMillis=" + ReplicaRoutingTests.READ_YOUR_WRITES_MILLIS
+})
+@ActiveProfiles("test")
+class ReplicaRoutingTests {
+
+  static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;MODE=MySQL;DB_CLOSE_DELAY=-1";
+  static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+  static final long READ_YOUR_WRITES_MILLIS = 300;
+
+  @Autowired
+  private TodoService todoService;
+
+  @Autowired
+  private UserRepositroy userRepository;
+
+  @Autowired
+  private SyncCounterRepository syncCounterRepository;
+
+  @Autowired
+  private ReplicaRoutingDataSource routingDataSource;
+
+  @Autowired
+  @Qualifier("replicaDataSource")
+  private HikariDataSource replicaDataSource;
+
+  @Autowired
+  private ManualClock clock;
+
+  @BeforeEach
+  void setUp() {
+    UserEntity user = userRepository.save(UserEntity.builder()
+        .username("routing")
+        .email("routing-" + UUID.randomUUID() + "@example.com")
+        .password("n/a")
+        .isActive(true)
+        .build());
+    syncCounterRepository.save(new SyncCounterEntity(user.getId(), 0L));
+    SecurityContextHolder.getContext().setAuthentication(
+        new UsernamePasswordAuthenticationToken(user.getEmail(), null, List.of()));
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void readsGoToTheReplicaOutsideTheReadYourWritesWindow() throws Exception {
+    todoService.createTodo(TodoDTO.builder().title("replicated").build());
+    replicate();
+    todoService.createTodo(TodoDTO.builder().title("not replicated yet").build());
+
+    // the user just wrote: their reads stay on the primary
+    assertEquals(2, todoService.getTodos(null, null).getItems().size());
+
+    clock.advance(READ_YOUR_WRITES_MILLIS);
+    assertEquals(1, todoService.getTodos(null, null).getItems().size());
+  }
+
+  @Test
+  void principalLookupsInReadOnlyTransactionsUseThePrimary() {
+    // first call of a user the replica has never seen: the principal cache misses inside a read-only transaction
+    assertEquals(0, todoService.getTodos(null, null).getItems().size());
+  }
+
+  @Test
+  @DirtiesContext
+  void readsFallBackToThePrimaryWhenTheReplicaIsDown() throws Exception {
+    todoService.createTodo(TodoDTO.builder().title("replicated").build());
+    replicate();
+    todoService.createTodo(TodoDTO.builder().title("not replicated yet").build());
+    clock.advance(READ_YOUR_WRITES_MILLIS);
+    assertEquals(1, todoService.getTodos(null, null).getItems().size());
+
+    replicaDataSource.close();
+
+    assertEquals(2, todoService.getTodos(null, null).getItems().size());
+    assertFalse(routingDataSource.isReplicaHealthy());
+    routingDataSource.checkReplica();
+    assertFalse(routingDataSource.isReplicaHealthy());
+  }
+
+  // the read-your-writes window only moves when a test advances it
+  static class ManualClock implements Ticker {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Override
+    public long read() {
+      return nanos.get();
+    }
+
+    void advance(long millis) {
+      nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+  }
+
+  @TestConfiguration
+  static class ClockConfig {
+
+    @Bean
+    ManualClock readYourWritesClock() {
+      return new ManualClock();
+    }
+  }
+
+  // copies the primary as it is now over the replica
+  private static void replicate() throws Exception {
+    Path script = Files.createTempFile("replica", ".sql");
+    try (Connection primary = DriverManager.getConnection(PRIMARY_URL, "sa", "");
+        Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "")) {
+      execute(primary, "SCRIPT TO '" + script.toAbsolutePath() + "'");
+      execute(replica, "DROP ALL OBJECTS");
+      execute(replica, "RUNSCRIPT FROM '" + script.toAbsolutePath() + "'");
+    } finally {
+      Files.deleteIfExists(script);
+    }
+  }
+
+  private static void execute(Connection connection, String sql) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package neurogine.example.todo.dto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import neurogine.example.todo.enums.TodoStatus;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.module.blackbird.BlackbirdModule;
+
+/**
+ * Serialization cost of one page of 1000 todos (GET /todos?size=1000), i.e. microseconds per 1k todos,
+ * for each wire format with and without Blackbird. The gzip variant adds what server.compression spends.
+ * Bytes on the wire per format are printed once per trial ("wire bytes").
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TodoSerializationBenchmark {
+
+  private static final int TODOS = 1000;
+
+  @Param({"json", "cbor"})
+  public String format;
+
+  @Param({"false", "true"})
+  public boolean blackbird;
+
+  private ObjectMapper mapper;
+  private TodoPageDTO page;
+
+  @Setup
+  public void setUp() throws IOException {
+    mapper = switch (format) {
+      case "json" -> blackbird ? JsonMapper.builder().addModule(new BlackbirdModule()).build() : new JsonMapper();
+      case "cbor" -> blackbird ? CBORMapper.builder().addModule(new BlackbirdModule()).build() : new CBORMapper();
+      default -> throw new IllegalArgumentException(format);
+    };
+    page = page();
+    byte[] raw = serialize();
+    System.out.printf("%nwire bytes per %d todos (%s): %d raw, %d gzip%n", TODOS, format, raw.length, gzip(raw).length);
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    return mapper.writeValueAsBytes(page);
+  }
+
+  @Benchmark
+  public byte[] serializeGzip() throws IOException {
+    return gzip(mapper.writeValueAsBytes(page));
+  }
+
+  private static byte[] gzip(byte[] bytes) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(bytes);
+    }
+    return out.toByteArray();
+  }
+
+  // mixed content like a real list: some todos without description or icon, all statuses
+  private static TodoPageDTO page() {
+    TodoStatus[] statuses = TodoStatus.values();
+    LocalDateTime now = LocalDateTime.now();
+    List<TodoDTO> items = new ArrayList<>(TODOS);
+    for (int i = 0; i < TODOS; i++) {
+      items.add(TodoDTO.builder()
+          .id(100_000L + i)
+          .title("Quarterly report " + i)
+          .description(i % 3 == 0 ? null : "Collect the numbers for region " + (i % 17) + " and send the report")
+          .icon(i % 2 == 0 ? "chart" : null)
+          .isFavorite(i % 5 == 0)
+          .status(statuses[i % statuses.length])
+          .userId(1L)
+          .username("bench")
+          .createdAt(now.minusMinutes(i))
+          .updatedAt(now)
+          .version((long) (i % 7))
+          .build());
+    }
+    return TodoPageDTO.builder().items(items).nextCursor("MTAwOTk5").hasNext(true).build();
+  }
+}
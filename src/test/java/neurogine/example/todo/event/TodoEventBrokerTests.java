@@ -0,0 +1,220 @@
+package neurogine.example.todo.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Delivery, overflow and Last-Event-ID replay, observed through emitters that record what would go on the wire.
+ */
+class TodoEventBrokerTests {
+
+  private static final long USER = 1L;
+
+  private TodoEventBroker broker;
+
+  private void start(int bufferSize, int replaySize) {
+    broker = new TodoEventBroker();
+    ReflectionTestUtils.setField(broker, "bufferSize", bufferSize);
+    ReflectionTestUtils.setField(broker, "replaySize", replaySize);
+    ReflectionTestUtils.setField(broker, "replayIdleMinutes", 10L);
+    ReflectionTestUtils.setField(broker, "timeoutMinutes", 30L);
+    // no heartbeats while a test runs
+    ReflectionTestUtils.setField(broker, "heartbeatSeconds", 3600L);
+    broker.init();
+  }
+
+  @AfterEach
+  void tearDown() {
+    broker.shutdown();
+  }
+
+  @Test
+  void overflowSendsExactlyOneResync() throws Exception {
+    start(4, 64);
+    CountDownLatch sending = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    RecordingEmitter slow = new RecordingEmitter() {
+      @Override
+      void beforeSend() throws InterruptedException {
+        if (sending.getCount() > 0) {
+          sending.countDown();
+          release.await();
+        }
+      }
+    };
+    broker.subscribe(USER, null, slow);
+
+    publish(1);
+    assertTrue(sending.await(5, TimeUnit.SECONDS));
+    // the first event is stuck in send: the queue of 4 overflows twice, the second time with nothing left behind
+    publish(10);
+    release.countDown();
+    await(() -> slow.names().size() == 2);
+
+    publish(1);
+    await(() -> slow.names().size() == 3);
+    assertEquals(List.of("deleted", TodoEventBroker.RESYNC, "deleted"), slow.names());
+  }
+
+  @Test
+  void reconnectReplaysEventsAfterLastEventId() {
+    start(64, 64);
+    RecordingEmitter observer = subscribe(null);
+    publish(5);
+    await(() -> observer.ids().size() == 5);
+
+    RecordingEmitter resumed = subscribe(String.valueOf(observer.ids().get(1)));
+    await(() -> resumed.ids().size() == 3);
+    publish(1);
+    await(() -> observer.ids().size() == 6);
+    await(() -> resumed.ids().size() == 4);
+
+    assertEquals(observer.ids().subList(2, 6), resumed.ids());
+    assertTrue(resumed.names().stream().noneMatch(TodoEventBroker.RESYNC::equals));
+  }
+
+  @Test
+  void lastEventIdBelowTheFloorGetsResync() {
+    start(64, 4);
+    RecordingEmitter observer = subscribe(null);
+    publish(6);
+    await(() -> observer.ids().size() == 6);
+
+    // the first two events were pushed out of the replay buffer, the second one is the floor
+    RecordingEmitter lost = subscribe(String.valueOf(observer.ids().get(0)));
+    await(() -> lost.names().size() == 1);
+    assertEquals(List.of(TodoEventBroker.RESYNC), lost.names());
+
+    RecordingEmitter covered = subscribe(String.valueOf(observer.ids().get(1)));
+    await(() -> covered.ids().size() == 4);
+    assertEquals(observer.ids().subList(2, 6), covered.ids());
+  }
+
+  @Test
+  void lastEventIdFromAnotherProcessGetsResync() {
+    start(64, 64);
+    publish(1);
+
+    // ids are seeded from the clock: a previous process handed out smaller ones, a garbled id is no better
+    for (String lastEventId : List.of("12345", String.valueOf(Long.MAX_VALUE), "not-an-id")) {
+      RecordingEmitter emitter = subscribe(lastEventId);
+      await(() -> emitter.names().size() == 1);
+      assertEquals(List.of(TodoEventBroker.RESYNC), emitter.names());
+    }
+  }
+
+  @Test
+  void noEventIsLostBetweenReplayAndRegistration() throws Exception {
+    int events = 2000;
+    start(events + 1, events + 1);
+    RecordingEmitter observer = subscribe(null);
+    Thread publisher = Thread.ofPlatform().start(() -> publish(events));
+
+    // reconnect repeatedly from whatever was last seen while events keep coming
+    List<Long> resumedFrom = new ArrayList<>();
+    List<RecordingEmitter> resumed = new ArrayList<>();
+    while (publisher.isAlive()) {
+      List<Long> seen = observer.ids();
+      if (!seen.isEmpty()) {
+        long last = seen.get(seen.size() - 1);
+        resumedFrom.add(last);
+        resumed.add(subscribe(String.valueOf(last)));
+      }
+      Thread.onSpinWait();
+    }
+    publisher.join();
+    await(() -> observer.ids().size() == events);
+
+    long lastId = observer.ids().get(events - 1);
+    for (int i = 0; i < resumed.size(); i++) {
+      RecordingEmitter emitter = resumed.get(i);
+      List<Long> expected = LongStream.rangeClosed(resumedFrom.get(i) + 1, lastId).boxed().toList();
+      await(() -> emitter.ids().size() == expected.size());
+      assertEquals(expected, emitter.ids());
+    }
+  }
+
+  private RecordingEmitter subscribe(String lastEventId) {
+    RecordingEmitter emitter = new RecordingEmitter();
+    broker.subscribe(USER, lastEventId, emitter);
+    return emitter;
+  }
+
+  private void publish(int count) {
+    for (int i = 0; i < count; i++) {
+      broker.onTodoChanged(TodoChangeEvent.deleted(USER, (long) i, null, null));
+    }
+  }
+
+  private static void await(BooleanSupplier condition) {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.nanoTime() < deadline, "timed out waiting for delivery");
+      Thread.onSpinWait();
+    }
+  }
+
+  /**
+   * Records the id and name of every event sent, heartbeats excluded
+   */
+  private static class RecordingEmitter extends SseEmitter {
+
+    private final List<String[]> sent = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void send(SseEventBuilder builder) throws IOException {
+      try {
+        beforeSend();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException(e);
+      }
+      String id = null;
+      String name = null;
+      for (DataWithMediaType part : builder.build()) {
+        if (part.getData() instanceof String text) {
+          for (String line : text.split("\n")) {
+            if (line.startsWith("id:")) {
+              id = line.substring(3);
+            } else if (line.startsWith("event:")) {
+              name = line.substring(6);
+            }
+          }
+        }
+      }
+      if (name != null) {
+        sent.add(new String[] {id, name});
+      }
+    }
+
+    void beforeSend() throws InterruptedException {
+    }
+
+    List<String> names() {
+      return sent.stream().map(event -> event[1]).toList();
+    }
+
+    // ids of todo events, resyncs excluded
+    List<Long> ids() {
+      return sent.stream()
+          .filter(event -> !TodoEventBroker.RESYNC.equals(event[1]))
+          .map(event -> Long.parseLong(event[0]))
+          .toList();
+    }
+  }
+}
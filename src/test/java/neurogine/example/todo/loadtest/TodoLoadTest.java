@@ -0,0 +1,369 @@
+package neurogine.example.todo.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import neurogine.example.todo.BenchmarkContext;
+
+/**
+ * Closed-loop load test of the todo and user endpoints against an embedded database.
+ * Per execution mode it starts the application, registers {@code loadtest.users} users with
+ * {@code loadtest.todos} todos each through the real endpoints, then drives {@code loadtest.concurrency}
+ * clients for {@code loadtest.seconds} with a weighted mix of login, list, search, status flips and statistics
+ * ({@code loadtest.mix}) and prints throughput and latency percentiles per operation,
+ * plus the server-side wait metrics per mode.
+ * The database is BenchmarkContext's in-memory H2 unless -Dbench.datasource.url=... points it at a real
+ * MySQL or PostgreSQL, which is what numbers for a vendor must be measured on.
+ * Run with mvn -Ploadtest verify (see pom.xml for the properties).
+ */
+public final class TodoLoadTest {
+
+  private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+  private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+  private static final String PASSWORD = "secret";
+  private static final String[] WORDS = {
+    "report", "invoice", "groceries", "meeting", "deploy", "review", "dentist", "budget", "travel", "gym"
+  };
+  private static final String[] STATUSES = { "NEW", "IN_PROGRESS", "COMPLETED" };
+  private static final Duration WARMUP = Duration.ofSeconds(5);
+  private static final Duration TIMEOUT = Duration.ofSeconds(30);
+  // below todo.batch.maxItems
+  private static final int SEED_BATCH = 500;
+
+  private TodoLoadTest() {
+  }
+
+  private enum Operation {
+    LOGIN, LIST, SEARCH, STATUS, STATISTICS
+  }
+
+  public static void main(String[] args) throws Exception {
+    List<String> modes = Arrays.asList(System.getProperty("loadtest.modes", "platform,virtual").split(","));
+    int concurrency = Integer.getInteger("loadtest.concurrency", 200);
+    Duration duration = Duration.ofSeconds(Integer.getInteger("loadtest.seconds", 30));
+    int users = Integer.getInteger("loadtest.users", 50);
+    int todos = Integer.getInteger("loadtest.todos", 100);
+    Mix mix = Mix.parse(System.getProperty("loadtest.mix",
+        "list=50,search=15,status=15,statistics=15,login=5"));
+    if (users <= 0 || todos <= 0) {
+      throw new IllegalArgumentException("loadtest.users and loadtest.todos must be positive");
+    }
+    List<String> report = new ArrayList<>();
+    for (String mode : modes) {
+      report.addAll(run(mode.trim(), concurrency, duration, users, todos, mix));
+    }
+    System.out.println();
+    System.out.printf("%-9s %-11s %9s %10s %9s %9s %9s %9s %8s%n", "mode", "operation", "requests", "req/s",
+        "p50 ms", "p90 ms", "p99 ms", "max ms", "errors");
+    report.forEach(System.out::println);
+  }
+
+  private static List<String> run(String mode, int concurrency, Duration duration, int users, int todos, Mix mix)
+      throws Exception {
+    List<String> serverArgs = new ArrayList<>();
+    // measures capacity: every client logs in from the same address and far exceeds the per-user budgets
+    serverArgs.add("--todo.rateLimit.enabled=false");
+    if ("virtual".equals(mode)) {
+      serverArgs.add("--spring.profiles.active=virtual");
+    }
+    try (ConfigurableApplicationContext context = BenchmarkContext.startServer(serverArgs.toArray(String[]::new));
+        ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+      String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+          + context.getEnvironment().getProperty("server.servlet.context-path", "");
+      HttpClient http = HttpClient.newBuilder()
+          .version(HttpClient.Version.HTTP_1_1)
+          .executor(clients)
+          .connectTimeout(Duration.ofSeconds(10))
+          .build();
+      Workload workload = new Workload(baseUrl, seed(clients, http, baseUrl, users, todos), mix);
+
+      drive(clients, http, workload, concurrency, WARMUP);
+      // server-side timers are cumulative, so only the delta over the measured run is reported
+      MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+      TimerDelta poolWait = new TimerDelta(meterRegistry, "hikaricp.connections.acquire");
+      TimerDelta bulkheadWait = new TimerDelta(meterRegistry, "todo.db.bulkhead.wait");
+      TimerDelta pinned = new TimerDelta(meterRegistry, "jvm.threads.virtual.pinned");
+      Map<Operation, Result> results = drive(clients, http, workload, concurrency, duration);
+
+      List<String> lines = new ArrayList<>();
+      Result total = new Result();
+      results.forEach((operation, result) -> {
+        lines.add(format(mode, operation.name().toLowerCase(), result, duration));
+        total.merge(result);
+      });
+      lines.add(format(mode, "all", total, duration));
+      lines.add(String.format("%-9s clients=%d users=%d todos/user=%d pool wait=%.2f ms bulkhead wait=%.2f ms"
+          + " pinned=%d", mode, concurrency, users, todos, poolWait.meanMillis(), bulkheadWait.meanMillis(),
+          pinned.count()));
+      return lines;
+    }
+  }
+
+  private static String format(String mode, String operation, Result result, Duration duration) {
+    return String.format("%-9s %-11s %9d %10.1f %9.1f %9.1f %9.1f %9.1f %8d", mode, operation, result.count(),
+        result.count() / (double) duration.toSeconds(), result.percentile(0.50), result.percentile(0.90),
+        result.percentile(0.99), result.percentile(1.0), result.errors());
+  }
+
+  /**
+   * Registers the users and creates their todos in parallel, through /register, /login and /todos/batch
+   */
+  private static List<Session> seed(ExecutorService clients, HttpClient http, String baseUrl, int users, int todos)
+      throws Exception {
+    List<Future<Session>> futures = new ArrayList<>();
+    for (int u = 0; u < users; u++) {
+      futures.add(clients.submit(() -> {
+        String email = "load-" + UUID.randomUUID() + "@loadtest.local";
+        send(http, json(baseUrl + "/register", null, "POST",
+            "{\"username\":\"load\",\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}"));
+        String token = login(http, baseUrl, email);
+        List<Long> todoIds = new ArrayList<>();
+        for (int from = 0; from < todos; from += SEED_BATCH) {
+          String batch = IntStream.range(from, Math.min(todos, from + SEED_BATCH))
+              .mapToObj(i -> "{\"title\":\"" + word() + " " + word() + " " + i + "\",\"description\":\"About "
+                  + word() + "\"}")
+              .collect(Collectors.joining(",", "{\"create\":[", "]}"));
+          String created = send(http, json(baseUrl + "/todos/batch", token, "POST", batch));
+          // each result carries the id twice (result and todo)
+          ID.matcher(created).results()
+              .map(match -> Long.parseLong(match.group(1)))
+              .distinct()
+              .forEach(todoIds::add);
+        }
+        return new Session(email, token, todoIds.stream().mapToLong(Long::longValue).toArray());
+      }));
+    }
+    List<Session> sessions = new ArrayList<>();
+    for (Future<Session> future : futures) {
+      sessions.add(future.get());
+    }
+    return sessions;
+  }
+
+  private static String login(HttpClient http, String baseUrl, String email) throws Exception {
+    String response = send(http, loginRequest(baseUrl, email));
+    Matcher matcher = TOKEN.matcher(response);
+    if (!matcher.find()) {
+      throw new IllegalStateException("Login failed: " + response);
+    }
+    return matcher.group(1);
+  }
+
+  private static HttpRequest loginRequest(String baseUrl, String email) {
+    return json(baseUrl + "/login", null, "POST",
+        "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}");
+  }
+
+  private static HttpRequest json(String url, String token, String method, String body) {
+    HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+        .header("Content-Type", "application/json")
+        .timeout(TIMEOUT)
+        .method(method, HttpRequest.BodyPublishers.ofString(body));
+    if (token != null) {
+      request.header("Authorization", "Bearer " + token);
+    }
+    return request.build();
+  }
+
+  private static String send(HttpClient http, HttpRequest request) throws Exception {
+    return http.send(request, HttpResponse.BodyHandlers.ofString()).body();
+  }
+
+  private static String word() {
+    return WORDS[ThreadLocalRandom.current().nextInt(WORDS.length)];
+  }
+
+  private static Map<Operation, Result> drive(ExecutorService clients, HttpClient http, Workload workload,
+      int concurrency, Duration duration) throws Exception {
+    long deadline = System.nanoTime() + duration.toNanos();
+    List<Future<Map<Operation, Result>>> futures = new ArrayList<>();
+    for (int i = 0; i < concurrency; i++) {
+      futures.add(clients.submit(() -> {
+        Map<Operation, Result> results = new EnumMap<>(Operation.class);
+        while (System.nanoTime() < deadline) {
+          Operation operation = workload.mix().next();
+          HttpRequest request = workload.request(operation);
+          Result result = results.computeIfAbsent(operation, o -> new Result());
+          long start = System.nanoTime();
+          try {
+            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+            int status = response.statusCode();
+            result.record(System.nanoTime() - start, status / 100 == 2 || status == 304);
+          } catch (Exception e) {
+            result.record(System.nanoTime() - start, false);
+          }
+        }
+        return results;
+      }));
+    }
+    Map<Operation, Result> total = new EnumMap<>(Operation.class);
+    for (Future<Map<Operation, Result>> future : futures) {
+      future.get().forEach((operation, result) -> total.computeIfAbsent(operation, o -> new Result()).merge(result));
+    }
+    return total;
+  }
+
+  /**
+   * A seeded user: credentials, a valid token and the ids of its todos
+   */
+  private record Session(String email, String token, long[] todoIds) {
+  }
+
+  /**
+   * Builds the next request of an operation for a random seeded user
+   */
+  private record Workload(String baseUrl, List<Session> sessions, Mix mix) {
+
+    HttpRequest request(Operation operation) {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      Session session = sessions.get(random.nextInt(sessions.size()));
+      return switch (operation) {
+        case LOGIN -> loginRequest(baseUrl, session.email());
+        case LIST -> get("/todos?size=50", session);
+        case SEARCH -> get("/todos/search?size=50&keyword=" + word(), session);
+        case STATISTICS -> get("/todos/statistics", session);
+        case STATUS -> json(baseUrl + "/todos/" + session.todoIds()[random.nextInt(session.todoIds().length)]
+            + "/status", session.token(), "PATCH",
+            "{\"status\":\"" + STATUSES[random.nextInt(STATUSES.length)] + "\"}");
+      };
+    }
+
+    private HttpRequest get(String path, Session session) {
+      return HttpRequest.newBuilder(URI.create(baseUrl + path))
+          .header("Authorization", "Bearer " + session.token())
+          .timeout(TIMEOUT)
+          .GET()
+          .build();
+    }
+  }
+
+  /**
+   * Weighted operation mix, e.g. "list=50,search=15,status=15,statistics=15,login=5"
+   */
+  private record Mix(Operation[] operations, int[] cumulativeWeights) {
+
+    static Mix parse(String spec) {
+      List<Operation> operations = new ArrayList<>();
+      List<Integer> cumulative = new ArrayList<>();
+      int total = 0;
+      for (String entry : spec.split(",")) {
+        String[] parts = entry.trim().split("=");
+        int weight = Integer.parseInt(parts[1].trim());
+        if (weight > 0) {
+          total += weight;
+          operations.add(Operation.valueOf(parts[0].trim().toUpperCase()));
+          cumulative.add(total);
+        }
+      }
+      if (operations.isEmpty()) {
+        throw new IllegalArgumentException("Empty loadtest.mix: " + spec);
+      }
+      return new Mix(operations.toArray(Operation[]::new), cumulative.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    Operation next() {
+      int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+      int index = Arrays.binarySearch(cumulativeWeights, pick + 1);
+      return operations[index >= 0 ? index : -index - 1];
+    }
+  }
+
+  /**
+   * Count and total time a server timer gains from construction to the time it is read; zero if the meter is absent
+   */
+  private static final class TimerDelta {
+
+    private final MeterRegistry meterRegistry;
+    private final String name;
+    private final long startCount;
+    private final double startMillis;
+
+    TimerDelta(MeterRegistry meterRegistry, String name) {
+      this.meterRegistry = meterRegistry;
+      this.name = name;
+      Timer timer = meterRegistry.find(name).timer();
+      this.startCount = timer == null ? 0 : timer.count();
+      this.startMillis = timer == null ? 0 : timer.totalTime(TimeUnit.MILLISECONDS);
+    }
+
+    long count() {
+      Timer timer = meterRegistry.find(name).timer();
+      return timer == null ? 0 : timer.count() - startCount;
+    }
+
+    double meanMillis() {
+      Timer timer = meterRegistry.find(name).timer();
+      long count = count();
+      return timer == null || count == 0 ? 0 : (timer.totalTime(TimeUnit.MILLISECONDS) - startMillis) / count;
+    }
+  }
+
+  /**
+   * Latencies of one client (or all of them, once merged)
+   */
+  private static final class Result {
+
+    private long[] latencies = new long[1024];
+    private int count;
+    private long errors;
+
+    void record(long nanos, boolean success) {
+      if (!success) {
+        errors++;
+      }
+      if (count == latencies.length) {
+        latencies = Arrays.copyOf(latencies, count * 2);
+      }
+      latencies[count++] = nanos;
+    }
+
+    void merge(Result other) {
+      if (count + other.count > latencies.length) {
+        latencies = Arrays.copyOf(latencies, count + other.count);
+      }
+      System.arraycopy(other.latencies, 0, latencies, count, other.count);
+      count += other.count;
+      errors += other.errors;
+    }
+
+    long count() {
+      return count;
+    }
+
+    long errors() {
+      return errors;
+    }
+
+    double percentile(double p) {
+      if (count == 0) {
+        return 0;
+      }
+      long[] sorted = Arrays.copyOf(latencies, count);
+      Arrays.sort(sorted);
+      int index = (int) Math.min(count - 1, Math.ceil(p * count) - 1);
+      return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+  }
+}
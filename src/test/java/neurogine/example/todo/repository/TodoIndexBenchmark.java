@@ -0,0 +1,148 @@
+package neurogine.example.todo.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import neurogine.example.todo.BenchmarkContext;
+import neurogine.example.todo.dto.TodoDTO;
+import neurogine.example.todo.entity.UserEntity;
+import neurogine.example.todo.enums.TodoStatus;
+import neurogine.example.todo.util.TodoCursor;
+
+/**
+ * List query latency at 1M todos, with and without the composite indexes from V2__todos_access_indexes.
+ * The query plans of the underlying SQL are printed once per trial.
+ * Best run against the real database: -Dbench.datasource.url=jdbc:mysql://... (schema created by Flyway).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TodoIndexBenchmark {
+
+  private static final int USER_COUNT = 100;
+  private static final int PAGE_SIZE = 50;
+  private static final String[] INDEXES = {
+    "idx_todos_user_updated", "idx_todos_user_status_updated", "idx_todos_user_favorite_updated"
+  };
+
+  @Param({ "1000000" })
+  public int todoCount;
+
+  @Param({ "true", "false" })
+  public boolean indexed;
+
+  private ConfigurableApplicationContext context;
+  private TodoRepository todoRepository;
+  private Long userId;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkContext.start();
+    todoRepository = context.getBean(TodoRepository.class);
+    JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+    String url = BenchmarkContext.property("bench.datasource.url", "");
+
+    List<Long> userIds = new ArrayList<>();
+    for (int u = 0; u < USER_COUNT; u++) {
+      userIds.add(context.getBean(UserRepositroy.class).save(UserEntity.builder()
+          .username("bench" + u)
+          .email("index-" + u + "-" + System.nanoTime() + "@bench.local")
+          .password("n/a")
+          .isActive(true)
+          .build()).getId());
+    }
+    userId = userIds.get(USER_COUNT / 2);
+
+    // plain JDBC batches: saveAll would take minutes at this size
+    long firstId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM todos", Long.class) + 1;
+    LocalDateTime base = LocalDateTime.now().minusDays(365);
+    List<Object[]> batch = new ArrayList<>();
+    for (int i = 0; i < todoCount; i++) {
+      Timestamp updatedAt = Timestamp.valueOf(base.plusSeconds(i * 31L % (365L * 24 * 3600)));
+      batch.add(new Object[] {
+        firstId + i, "Todo " + i, "Description " + i, i % 7 == 0,
+        TodoStatus.values()[i % TodoStatus.values().length].name(), userIds.get(i % USER_COUNT), updatedAt, updatedAt, 0L
+      });
+      if (batch.size() == 5000 || i == todoCount - 1) {
+        jdbcTemplate.batchUpdate("INSERT INTO todos (id, title, description, is_favorite, status, user_id,"
+            + " created_at, updated_at, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+        batch.clear();
+      }
+    }
+
+    if (!indexed) {
+      for (String index : INDEXES) {
+        jdbcTemplate.execute(url.startsWith("jdbc:mysql:")
+            ? "DROP INDEX " + index + " ON todos"
+            : "DROP INDEX " + index);
+      }
+    }
+    if (url.startsWith("jdbc:postgresql:")) {
+      jdbcTemplate.execute("ANALYZE todos");
+    }
+
+    String keyset = " AND (updated_at < '9999-12-31 23:59:59' OR (updated_at = '9999-12-31 23:59:59' AND id < "
+        + Long.MAX_VALUE + ")) ORDER BY updated_at DESC, id DESC LIMIT " + (PAGE_SIZE + 1);
+    Map<String, String> queries = Map.of(
+        "findPage", "SELECT * FROM todos WHERE user_id = " + userId + keyset,
+        "findPageByStatus", "SELECT * FROM todos WHERE user_id = " + userId + " AND status = 'NEW'" + keyset,
+        "findFavoritePage", "SELECT * FROM todos WHERE user_id = " + userId + " AND is_favorite = true" + keyset,
+        "countByStatus", "SELECT status, COUNT(*) FROM todos WHERE user_id = " + userId + " GROUP BY status");
+    queries.forEach((name, sql) -> {
+      System.out.println("== " + name + " (indexed=" + indexed + ")");
+      jdbcTemplate.queryForList("EXPLAIN " + sql).forEach(System.out::println);
+    });
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<TodoDTO> findPage() {
+    return todoRepository.findPage(userId, TodoCursor.START.updatedAt(), TodoCursor.START.id(),
+        Limit.of(PAGE_SIZE + 1));
+  }
+
+  @Benchmark
+  public List<TodoDTO> findPageByStatus() {
+    return todoRepository.findPageByStatus(userId, TodoStatus.NEW, TodoCursor.START.updatedAt(),
+        TodoCursor.START.id(), Limit.of(PAGE_SIZE + 1));
+  }
+
+  @Benchmark
+  public List<TodoDTO> findFavoritePage() {
+    return todoRepository.findFavoritePage(userId, TodoCursor.START.updatedAt(), TodoCursor.START.id(),
+        Limit.of(PAGE_SIZE + 1));
+  }
+
+  @Benchmark
+  public List<TodoStatusCount> countByStatus() {
+    return todoRepository.countByStatus(userId);
+  }
+}
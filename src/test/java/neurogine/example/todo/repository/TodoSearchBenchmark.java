@@ -0,0 +1,99 @@
+package neurogine.example.todo.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import neurogine.example.todo.BenchmarkContext;
+import neurogine.example.todo.entity.TodoEntity;
+import neurogine.example.todo.entity.UserEntity;
+import neurogine.example.todo.enums.TodoStatus;
+
+/**
+ * Search latency against the user's todo count:
+ * the old load-everything-and-filter path vs the database full-text query (first page of 50).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TodoSearchBenchmark {
+
+  private static final String[] WORDS = {
+    "report", "invoice", "groceries", "meeting", "deploy", "review", "dentist", "budget", "travel", "gym"
+  };
+  private static final String KEYWORD = "report";
+
+  @Param({ "1000", "10000", "100000" })
+  public int todoCount;
+
+  private ConfigurableApplicationContext context;
+  private TodoRepository todoRepository;
+  private Long userId;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkContext.start();
+    todoRepository = context.getBean(TodoRepository.class);
+    UserEntity user = context.getBean(UserRepositroy.class).save(UserEntity.builder()
+        .username("bench")
+        .email("search-" + todoCount + "@bench.local")
+        .password("n/a")
+        .isActive(true)
+        .build());
+    userId = user.getId();
+
+    Random random = new Random(42);
+    List<TodoEntity> chunk = new ArrayList<>();
+    for (int i = 0; i < todoCount; i++) {
+      chunk.add(TodoEntity.builder()
+          .title(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i)
+          .description("Todo " + i + " about " + WORDS[random.nextInt(WORDS.length)])
+          .status(TodoStatus.values()[i % TodoStatus.values().length])
+          .user(user)
+          .build());
+      if (chunk.size() == 1000) {
+        todoRepository.saveAll(chunk);
+        chunk.clear();
+      }
+    }
+    todoRepository.saveAll(chunk);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<TodoEntity> inJvmFilter() {
+    return todoRepository.findByUserId(userId).stream()
+        .filter(t -> t.getTitle().toLowerCase().contains(KEYWORD.toLowerCase())
+            || (t.getDescription() != null && t.getDescription().toLowerCase().contains(KEYWORD.toLowerCase())))
+        .collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public List<TodoEntity> databaseSearch() {
+    return todoRepository.searchByUserId(userId, KEYWORD, 0, 50);
+  }
+}
@@ -0,0 +1,67 @@
+package neurogine.example.todo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import neurogine.example.todo.entity.TodoEntity;
+import neurogine.example.todo.entity.UserEntity;
+
+/**
+ * LIKE fallback (H2): keywords are matched literally, wildcard characters included.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TodoSearchRepositoryTests {
+
+  @Autowired
+  private TodoRepository todoRepository;
+
+  @Autowired
+  private UserRepositroy userRepository;
+
+  private Long userId;
+
+  @BeforeEach
+  void setUp() {
+    UserEntity user = userRepository.save(UserEntity.builder()
+        .username("search")
+        .email("search-" + UUID.randomUUID() + "@example.com")
+        .password("n/a")
+        .isActive(true)
+        .build());
+    userId = user.getId();
+    todoRepository.saveAll(List.of(
+        TodoEntity.builder().title("Reach 100% coverage").user(user).build(),
+        TodoEntity.builder().title("Reach 1000 users").user(user).build(),
+        TodoEntity.builder().title("Rename a_b").user(user).build(),
+        TodoEntity.builder().title("Rename axb").user(user).build(),
+        TodoEntity.builder().title("Keep ! as is").user(user).build()));
+  }
+
+  @Test
+  void percentIsMatchedLiterally() {
+    assertEquals(List.of("Reach 100% coverage"), titles("100%"));
+  }
+
+  @Test
+  void underscoreIsMatchedLiterally() {
+    assertEquals(List.of("Rename a_b"), titles("a_b"));
+  }
+
+  @Test
+  void escapeCharacterIsMatchedLiterally() {
+    assertEquals(List.of("Keep ! as is"), titles("! as"));
+  }
+
+  private List<String> titles(String keyword) {
+    return todoRepository.searchByUserId(userId, keyword, 0, 10).stream().map(TodoEntity::getTitle).toList();
+  }
+}
@@ -0,0 +1,66 @@
+package neurogine.example.todo.security;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import neurogine.example.todo.util.JwtUtil;
+import neurogine.example.todo.util.JwtUtilBenchmark;
+
+/**
+ * One authenticated request through JwtRequestFilter: header parsing, token verification (cached claims),
+ * the revocation check and building the authentication, with an in-memory user lookup standing in for the principal cache.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JwtRequestFilterBenchmark {
+
+  private static final String EMAIL = "bench@example.com";
+
+  private JwtRequestFilter filter;
+  private String authorization;
+
+  @Setup
+  public void setUp() {
+    JwtUtil jwtUtil = JwtUtilBenchmark.newJwtUtil();
+    UserDetails user = User.withUsername(EMAIL).password("n/a").authorities(List.of()).build();
+    TokenRevocations tokenRevocations = new TokenRevocations();
+    ReflectionTestUtils.setField(tokenRevocations, "refreshExpirationDays", 14L);
+    ReflectionTestUtils.setField(tokenRevocations, "maxSize", 1_000_000L);
+    tokenRevocations.init();
+    filter = new JwtRequestFilter(jwtUtil, username -> user, tokenRevocations);
+    authorization = "Bearer " + jwtUtil.generateToken(EMAIL);
+  }
+
+  @Benchmark
+  public Authentication authenticatedRequest() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/todos");
+    request.addHeader("Authorization", authorization);
+    filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    SecurityContextHolder.clearContext();
+    return authentication;
+  }
+}
@@ -0,0 +1,76 @@
+package neurogine.example.todo.security;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import neurogine.example.todo.entity.UserEntity;
+import neurogine.example.todo.repository.UserRepositroy;
+
+/**
+ * The cached principal follows committed changes to the users table, even when another request reloads
+ * the user while the change is still in flight.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PrincipalCacheTests {
+
+  @Autowired
+  private PrincipalCache principalCache;
+
+  @Autowired
+  private UserRepositroy userRepository;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private String email;
+
+  @BeforeEach
+  void setUp() {
+    email = "principal-" + UUID.randomUUID() + "@example.com";
+    userRepository.save(UserEntity.builder()
+        .username("principal")
+        .email(email)
+        .password("n/a")
+        .isActive(true)
+        .build());
+  }
+
+  @Test
+  void reloadBeforeCommitIsNotKept() {
+    assertTrue(principalCache.get(email).orElseThrow().getIsActive());
+
+    transactionTemplate.executeWithoutResult(status -> {
+      UserEntity user = userRepository.findByEmail(email).orElseThrow();
+      user.setIsActive(false);
+      userRepository.saveAndFlush(user);
+      // another request misses the evicted entry and caches the row as last committed
+      assertTrue(CompletableFuture.supplyAsync(() -> principalCache.get(email).orElseThrow().getIsActive()).join());
+    });
+
+    assertFalse(principalCache.get(email).orElseThrow().getIsActive());
+  }
+
+  @Test
+  void statisticsArePublished() {
+    principalCache.get(email);
+
+    assertNotNull(meterRegistry.find("cache.gets").tag("cache", "principals").tag("result", "miss").functionCounter());
+    assertNotNull(meterRegistry.find("cache.size").tag("cache", "principals").gauge());
+  }
+}
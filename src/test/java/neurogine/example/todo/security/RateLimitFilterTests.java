@@ -0,0 +1,281 @@
+package neurogine.example.todo.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import tools.jackson.databind.json.JsonMapper;
+
+class RateLimitFilterTests {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+  private static final int BURST = 3;
+  private static final int ADDRESS_BURST = 10;
+  private static final int MAX_BODY = 256;
+
+  private RateLimitFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    filter = new RateLimitFilter(new SimpleMeterRegistry(), new JsonMapper());
+    ReflectionTestUtils.setField(filter, "enabled", true);
+    ReflectionTestUtils.setField(filter, "maxKeys", 1000L);
+    ReflectionTestUtils.setField(filter, "idleMinutes", 10L);
+    // slow refill, so nothing comes back while a test runs
+    for (String budget : List.of("read", "write", "login")) {
+      ReflectionTestUtils.setField(filter, budget + "PerSecond", 0.001);
+      ReflectionTestUtils.setField(filter, budget + "Burst", BURST);
+    }
+    ReflectionTestUtils.setField(filter, "loginAddressPerSecond", 0.001);
+    ReflectionTestUtils.setField(filter, "loginAddressBurst", ADDRESS_BURST);
+    ReflectionTestUtils.setField(filter, "loginMaxKeys", 1000L);
+    ReflectionTestUtils.setField(filter, "loginMaxBodyBytes", MAX_BODY);
+    filter.init();
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void budgetFollowsPathAndMethod() {
+    assertEquals(RateLimitFilter.Budget.LOGIN, RateLimitFilter.budget(request("POST", "/login")));
+    assertEquals(RateLimitFilter.Budget.LOGIN, RateLimitFilter.budget(request("POST", "/token/refresh")));
+    assertEquals(RateLimitFilter.Budget.LOGIN, RateLimitFilter.budget(request("POST", "/register")));
+    assertEquals(RateLimitFilter.Budget.READ, RateLimitFilter.budget(request("GET", "/todos")));
+    assertEquals(RateLimitFilter.Budget.READ, RateLimitFilter.budget(request("HEAD", "/todos")));
+    assertEquals(RateLimitFilter.Budget.READ, RateLimitFilter.budget(request("OPTIONS", "/todos")));
+    assertEquals(RateLimitFilter.Budget.WRITE, RateLimitFilter.budget(request("POST", "/todos")));
+    assertEquals(RateLimitFilter.Budget.WRITE, RateLimitFilter.budget(request("PATCH", "/todos/1/favorite")));
+    assertEquals(RateLimitFilter.Budget.WRITE, RateLimitFilter.budget(request("DELETE", "/todos/1")));
+  }
+
+  @Test
+  void exhaustedBudgetAnswers429WithRetryAfter() throws Exception {
+    authenticate("alice@example.com");
+    for (int i = 0; i < BURST; i++) {
+      assertEquals(200, send(request("POST", "/todos")).getStatus());
+    }
+
+    MockHttpServletResponse rejected = send(request("POST", "/todos"));
+    assertEquals(429, rejected.getStatus());
+    assertTrue(Long.parseLong(rejected.getHeader(HttpHeaders.RETRY_AFTER)) >= 1);
+    // reads have their own budget
+    assertEquals(200, send(request("GET", "/todos")).getStatus());
+  }
+
+  @Test
+  void authenticatedRequestsAreLimitedPerUser() throws Exception {
+    authenticate("alice@example.com");
+    exhaust(() -> request("POST", "/todos"));
+
+    // same address, other user
+    authenticate("bob@example.com");
+    assertEquals(200, send(request("POST", "/todos")).getStatus());
+  }
+
+  @Test
+  void anonymousRequestsAreLimitedPerAddress() throws Exception {
+    exhaust(() -> request("POST", "/todos"));
+
+    MockHttpServletRequest otherClient = request("POST", "/todos");
+    otherClient.setRemoteAddr("10.0.0.2");
+    assertEquals(200, send(otherClient).getStatus());
+  }
+
+  @Test
+  void loginsAreLimitedPerAddressAndEmail() throws Exception {
+    exhaust(() -> login("10.0.0.1", "alice@example.com"));
+    assertEquals(429, send(login("10.0.0.1", " ALICE@example.com")).getStatus());
+
+    // another account behind the same address, and the same account from another address
+    assertEquals(200, send(login("10.0.0.1", "bob@example.com")).getStatus());
+    assertEquals(200, send(login("10.0.0.2", "alice@example.com")).getStatus());
+  }
+
+  @Test
+  void loginsAreLimitedPerAddressAcrossEmails() throws Exception {
+    for (int i = 0; i < ADDRESS_BURST; i++) {
+      assertEquals(200, send(login("10.0.0.1", "user" + i + "@example.com")).getStatus());
+    }
+    // every email is new, the address budget is not
+    assertEquals(429, send(login("10.0.0.1", "fresh@example.com")).getStatus());
+    assertEquals(200, send(login("10.0.0.2", "fresh@example.com")).getStatus());
+  }
+
+  @Test
+  void loginSprayDoesNotEvictUserBuckets() throws Exception {
+    authenticate("alice@example.com");
+    exhaust(() -> request("POST", "/todos"));
+    SecurityContextHolder.clearContext();
+
+    for (int i = 0; i < 2000; i++) {
+      send(login("10.1." + (i / 250) + "." + (i % 250), "spray" + i + "@example.com"));
+    }
+
+    authenticate("alice@example.com");
+    assertEquals(429, send(request("POST", "/todos")).getStatus());
+  }
+
+  @Test
+  void oversizedLoginBodiesAreRejected() throws Exception {
+    MockHttpServletRequest request = login("10.0.0.1", "alice@example.com");
+    request.setContent(new byte[MAX_BODY + 1]);
+    MockFilterChain chain = new MockFilterChain();
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, chain);
+
+    assertEquals(413, response.getStatus());
+    assertNull(chain.getRequest());
+  }
+
+  @Test
+  void bufferedBodyNotifiesReadListenerAtOnce() throws Exception {
+    ServletInputStream in = RateLimitFilter.BufferedBodyRequest
+        .read(login("10.0.0.1", "alice@example.com"), MAX_BODY)
+        .getInputStream();
+    StringBuilder read = new StringBuilder();
+    AtomicInteger allRead = new AtomicInteger();
+    in.setReadListener(new ReadListener() {
+      @Override
+      public void onDataAvailable() throws IOException {
+        while (in.isReady() && !in.isFinished()) {
+          read.append((char) in.read());
+        }
+      }
+
+      @Override
+      public void onAllDataRead() {
+        allRead.incrementAndGet();
+      }
+
+      @Override
+      public void onError(Throwable t) {
+        throw new AssertionError(t);
+      }
+    });
+
+    assertEquals("{\"email\":\"alice@example.com\",\"password\":\"secret\"}", read.toString());
+    assertEquals(1, allRead.get());
+  }
+
+  @Test
+  void loginBodyIsStillReadableDownstream() throws Exception {
+    MockFilterChain chain = new MockFilterChain();
+    filter.doFilter(login("10.0.0.1", "alice@example.com"), new MockHttpServletResponse(), chain);
+
+    assertNotNull(chain.getRequest());
+    String body = new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    assertEquals("{\"email\":\"alice@example.com\",\"password\":\"secret\"}", body);
+  }
+
+
+  @Test
+  void burstIsAdmittedThenRefillsAtRate() {
+    RateLimitFilter.Limit limit = RateLimitFilter.Limit.of(10, 5);
+    long now = 0;
+    AtomicLong bucket = new AtomicLong(now);
+
+    for (int i = 0; i < 5; i++) {
+      assertEquals(0, limit.acquire(bucket, now));
+    }
+    long wait = limit.acquire(bucket, now);
+    assertEquals(SECOND / 10, wait);
+
+    // one interval later exactly one more request fits
+    now += wait;
+    assertEquals(0, limit.acquire(bucket, now));
+    assertTrue(limit.acquire(bucket, now) > 0);
+
+    // an idle bucket never accumulates more than the burst
+    now += 10 * SECOND;
+    for (int i = 0; i < 5; i++) {
+      assertEquals(0, limit.acquire(bucket, now));
+    }
+    assertTrue(limit.acquire(bucket, now) > 0);
+  }
+
+  @Test
+  void concurrentAcquiresNeverExceedBurst() throws Exception {
+    RateLimitFilter.Limit limit = RateLimitFilter.Limit.of(1, 100);
+    AtomicLong bucket = new AtomicLong(0);
+    AtomicInteger admitted = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    for (int t = 0; t < 8; t++) {
+      pool.submit(() -> {
+        start.await();
+        for (int i = 0; i < 100; i++) {
+          if (limit.acquire(bucket, 0) == 0) {
+            admitted.incrementAndGet();
+          }
+        }
+        return null;
+      });
+    }
+    start.countDown();
+    pool.shutdown();
+    assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+    assertEquals(100, admitted.get());
+  }
+
+  private void exhaust(Supplier<MockHttpServletRequest> requests) throws Exception {
+    for (int i = 0; i < BURST; i++) {
+      assertEquals(200, send(requests.get()).getStatus());
+    }
+    assertEquals(429, send(requests.get()).getStatus());
+  }
+
+  private MockHttpServletResponse send(MockHttpServletRequest request) throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, new MockFilterChain());
+    return response;
+  }
+
+  private static MockHttpServletRequest request(String method, String path) {
+    MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/v1.0" + path);
+    request.setContextPath("/api/v1.0");
+    request.setRemoteAddr("10.0.0.1");
+    return request;
+  }
+
+  private static MockHttpServletRequest login(String address, String email) {
+    MockHttpServletRequest request = request("POST", "/login");
+    request.setRemoteAddr(address);
+    request.setContentType("application/json");
+    request.setContent(("{\"email\":\"" + email + "\",\"password\":\"secret\"}").getBytes(StandardCharsets.UTF_8));
+    return request;
+  }
+
+  private static void authenticate(String email) {
+    SecurityContextHolder.getContext().setAuthentication(
+        new UsernamePasswordAuthenticationToken(email, null, List.of()));
+  }
+}
@@ -0,0 +1,163 @@
+package neurogine.example.todo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import neurogine.example.todo.dto.TodoDTO;
+import neurogine.example.todo.entity.SyncCounterEntity;
+import neurogine.example.todo.entity.TodoEntity;
+import neurogine.example.todo.entity.UserEntity;
+import neurogine.example.todo.enums.TodoStatus;
+import neurogine.example.todo.exception.TodoConflictException;
+import neurogine.example.todo.repository.SyncCounterRepository;
+import neurogine.example.todo.repository.TodoRepository;
+import neurogine.example.todo.repository.UserRepositroy;
+
+/**
+ * Hammers a single todo from many threads: versioned read-modify-write cycles must never lose an update,
+ * and commutative operations (status, favorite) must apply every call without conflicts.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TodoConcurrencyTests {
+
+  private static final int THREADS = 8;
+  private static final int OPERATIONS_PER_THREAD = 25;
+  private static final int TOTAL = THREADS * OPERATIONS_PER_THREAD;
+
+  @Autowired
+  private TodoService todoService;
+
+  @Autowired
+  private TodoRepository todoRepository;
+
+  @Autowired
+  private UserRepositroy userRepository;
+
+  @Autowired
+  private SyncCounterRepository syncCounterRepository;
+
+  private String email;
+  private Long todoId;
+  private long initialVersion;
+
+  @BeforeEach
+  void setUp() {
+    email = "concurrency-" + UUID.randomUUID() + "@example.com";
+    UserEntity user = userRepository.save(UserEntity.builder()
+        .username("concurrency")
+        .email(email)
+        .password("n/a")
+        .isActive(true)
+        .build());
+    syncCounterRepository.save(new SyncCounterEntity(user.getId(), 0L));
+    TodoEntity todo = todoRepository.save(TodoEntity.builder().title("0").user(user).build());
+    todoId = todo.getId();
+    initialVersion = todo.getVersion();
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void versionedUpdatesAreNeverLost() throws Exception {
+    runConcurrently(() -> {
+      TodoDTO current = todoService.getTodoById(todoId);
+      for (int applied = 0; applied < OPERATIONS_PER_THREAD; ) {
+        TodoDTO change = TodoDTO.builder()
+            .title(String.valueOf(Integer.parseInt(current.getTitle()) + 1))
+            .version(current.getVersion())
+            .build();
+        try {
+          current = todoService.updateTodo(todoId, change, null);
+          applied++;
+        } catch (TodoConflictException ex) {
+          // someone else won: merge onto the state carried by the conflict and try again
+          current = ex.getCurrent();
+        }
+      }
+    });
+
+    TodoDTO result = todoService.getTodoById(todoId);
+    assertEquals(String.valueOf(TOTAL), result.getTitle());
+    assertEquals(initialVersion + TOTAL, result.getVersion());
+  }
+
+  @Test
+  void statusChangesApplyWithoutConflicts() throws Exception {
+    runConcurrently(() -> {
+      for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+        TodoStatus status = TodoStatus.values()[i % TodoStatus.values().length];
+        todoService.updateStatus(todoId, status, null);
+      }
+    });
+
+    assertEquals(initialVersion + TOTAL, todoService.getTodoById(todoId).getVersion());
+  }
+
+  @Test
+  void favoriteTogglesAreNeverLost() throws Exception {
+    runConcurrently(() -> {
+      for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+        todoService.toggleFavorite(todoId, null);
+      }
+    });
+
+    TodoDTO result = todoService.getTodoById(todoId);
+    assertEquals(initialVersion + TOTAL, result.getVersion());
+    // an even number of toggles ends where it started
+    assertFalse(result.getIsFavorite());
+  }
+
+  private void runConcurrently(Task task) throws Exception {
+    authenticate();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        futures.add(executor.submit(() -> {
+          authenticate();
+          start.await();
+          task.run();
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void authenticate() {
+    SecurityContextHolder.getContext().setAuthentication(
+        new UsernamePasswordAuthenticationToken(email, null, List.of()));
+  }
+
+  @FunctionalInterface
+  private interface Task {
+    void run() throws Exception;
+  }
+}
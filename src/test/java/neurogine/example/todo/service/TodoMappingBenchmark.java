@@ -0,0 +1,65 @@
+package neurogine.example.todo.service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import neurogine.example.todo.dto.TodoDTO;
+import neurogine.example.todo.entity.TodoEntity;
+import neurogine.example.todo.entity.UserEntity;
+import neurogine.example.todo.enums.TodoStatus;
+
+/**
+ * Per-item cost of the entity/DTO mapping in TodoService (responses, batch writes, search without the index)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TodoMappingBenchmark {
+
+  private UserEntity user;
+  private TodoEntity entity;
+  private TodoDTO dto;
+
+  @Setup
+  public void setUp() {
+    user = UserEntity.builder().id(1L).username("bench").email("bench@example.com").isActive(true).build();
+    LocalDateTime now = LocalDateTime.now();
+    entity = TodoEntity.builder()
+        .id(42L)
+        .title("Quarterly report")
+        .description("Collect the numbers and send the report")
+        .icon("chart")
+        .status(TodoStatus.IN_PROGRESS)
+        .isFavorite(true)
+        .user(user)
+        .createdAt(now)
+        .updatedAt(now)
+        .version(3L)
+        .build();
+    dto = TodoService.toDTO(entity);
+  }
+
+  @Benchmark
+  public TodoDTO toDTO() {
+    return TodoService.toDTO(entity, user);
+  }
+
+  @Benchmark
+  public TodoEntity toEntity() {
+    return TodoService.toEntity(dto, user);
+  }
+}
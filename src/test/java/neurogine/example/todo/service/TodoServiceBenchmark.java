@@ -0,0 +1,118 @@
+package neurogine.example.todo.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import neurogine.example.todo.BenchmarkContext;
+import neurogine.example.todo.dto.TodoPageDTO;
+import neurogine.example.todo.entity.SyncCounterEntity;
+import neurogine.example.todo.entity.TodoEntity;
+import neurogine.example.todo.entity.UserEntity;
+import neurogine.example.todo.enums.TodoStatus;
+import neurogine.example.todo.repository.SyncCounterRepository;
+import neurogine.example.todo.repository.TodoRepository;
+import neurogine.example.todo.repository.UserRepositroy;
+
+/**
+ * TodoService read paths over a user with N todos, through the Spring proxies (transactions, @Timed):
+ * search with and without the in-memory index, and statistics from the counters on the sync counter row
+ * (TodoIndexBenchmark.countByStatus is the GROUP BY they replace).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TodoServiceBenchmark {
+
+  private static final String[] WORDS = {
+    "report", "invoice", "groceries", "meeting", "deploy", "review", "dentist", "budget", "travel", "gym"
+  };
+
+  @Param({ "1000", "10000" })
+  public int todoCount;
+
+  @Param({ "true", "false" })
+  public boolean searchInMemory;
+
+  private ConfigurableApplicationContext context;
+  private TodoService todoService;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkContext.start("--todo.search.inMemory.enabled=" + searchInMemory);
+    todoService = context.getBean(TodoService.class);
+    TodoRepository todoRepository = context.getBean(TodoRepository.class);
+
+    String email = "service-" + todoCount + "-" + System.nanoTime() + "@bench.local";
+    UserEntity user = context.getBean(UserRepositroy.class).save(UserEntity.builder()
+        .username("bench")
+        .email(email)
+        .password("n/a")
+        .isActive(true)
+        .build());
+    SyncCounterEntity counter = new SyncCounterEntity(user.getId(), 0L);
+
+    Random random = new Random(42);
+    List<TodoEntity> chunk = new ArrayList<>();
+    for (int i = 0; i < todoCount; i++) {
+      chunk.add(TodoEntity.builder()
+          .title(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i)
+          .description("Todo " + i + " about " + WORDS[random.nextInt(WORDS.length)])
+          .status(TodoStatus.values()[i % TodoStatus.values().length])
+          .isFavorite(i % 5 == 0)
+          .user(user)
+          .build());
+      counter.addCounts(TodoStatus.values()[i % TodoStatus.values().length], 1, i % 5 == 0 ? 1 : 0);
+      if (chunk.size() == 1000) {
+        todoRepository.saveAll(chunk);
+        chunk.clear();
+      }
+    }
+    todoRepository.saveAll(chunk);
+    // seeded directly like the todos, which bypass the service and its counter updates
+    context.getBean(SyncCounterRepository.class).save(counter);
+
+    // JMH may run setup and measurement on different threads
+    SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+    SecurityContextHolder.getContext().setAuthentication(
+        new UsernamePasswordAuthenticationToken(email, null, List.of()));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    SecurityContextHolder.clearContext();
+    context.close();
+  }
+
+  @Benchmark
+  public TodoPageDTO searchTodos() {
+    return todoService.searchTodos("report", null, 50);
+  }
+
+  @Benchmark
+  public Map<String, Long> statistics() {
+    return todoService.getStatistics();
+  }
+}
@@ -0,0 +1,124 @@
+package neurogine.example.todo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import jakarta.persistence.EntityManagerFactory;
+import neurogine.example.todo.dto.TodoPageDTO;
+import neurogine.example.todo.entity.TodoEntity;
+import neurogine.example.todo.entity.UserEntity;
+import neurogine.example.todo.enums.TodoStatus;
+import neurogine.example.todo.repository.TodoRepository;
+import neurogine.example.todo.repository.UserRepositroy;
+
+/**
+ * Guards the list endpoints against N+1: every list call must be exactly one SQL statement,
+ * whatever the page size.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TodoServiceQueryCountTests {
+
+  private static final int TODO_COUNT = 30;
+
+  @Autowired
+  private TodoService todoService;
+
+  @Autowired
+  private TodoRepository todoRepository;
+
+  @Autowired
+  private UserRepositroy userRepository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    UserEntity user = userRepository.save(UserEntity.builder()
+        .username("counter")
+        .email("counter-" + UUID.randomUUID() + "@example.com")
+        .password("n/a")
+        .isActive(true)
+        .build());
+    List<TodoEntity> todos = IntStream.range(0, TODO_COUNT)
+        .mapToObj(i -> TodoEntity.builder()
+            .title("Report " + i)
+            .description("Quarterly report number " + i)
+            .status(i % 2 == 0 ? TodoStatus.NEW : TodoStatus.COMPLETED)
+            .isFavorite(i % 3 == 0)
+            .user(user)
+            .build())
+        .toList();
+    todoRepository.saveAll(todos);
+
+    SecurityContextHolder.getContext().setAuthentication(
+        new UsernamePasswordAuthenticationToken(user.getEmail(), null, List.of()));
+    // warm the principal cache so only the list query itself is counted
+    todoService.getCurrentUserId();
+
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void getTodosRunsOneStatementPerPage() {
+    TodoPageDTO first = todoService.getTodos(null, 20);
+    assertEquals(20, first.getItems().size());
+    assertEquals(1, statistics.getPrepareStatementCount());
+
+    TodoPageDTO second = todoService.getTodos(first.getNextCursor(), 20);
+    assertEquals(TODO_COUNT - 20, second.getItems().size());
+    assertEquals(2, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void getTodosByStatusRunsOneStatement() {
+    TodoPageDTO page = todoService.getTodosByStatus(TodoStatus.NEW, null, 50);
+    assertEquals(TODO_COUNT / 2, page.getItems().size());
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void getFavoriteTodosRunsOneStatement() {
+    TodoPageDTO page = todoService.getFavoriteTodos(null, 50);
+    assertEquals(TODO_COUNT / 3, page.getItems().size());
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void searchTodosRunsOneStatement() {
+    TodoPageDTO page = todoService.searchTodos("report", null, 50);
+    assertEquals(TODO_COUNT, page.getItems().size());
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void listCallsDoNotLoadEntities() {
+    todoService.getTodos(null, 50);
+    assertEquals(0, statistics.getEntityLoadCount());
+    assertTrue(statistics.getPrepareStatementCount() <= 1);
+  }
+}
@@ -0,0 +1,116 @@
+package neurogine.example.todo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import neurogine.example.todo.dto.TodoBatchRequestDTO;
+import neurogine.example.todo.dto.TodoBatchResultDTO;
+import neurogine.example.todo.dto.TodoDTO;
+import neurogine.example.todo.entity.SyncCounterEntity;
+import neurogine.example.todo.entity.UserEntity;
+import neurogine.example.todo.enums.TodoStatus;
+import neurogine.example.todo.repository.SyncCounterRepository;
+import neurogine.example.todo.repository.UserRepositroy;
+
+/**
+ * The statistics counters follow every kind of write, including a read right after each commit.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TodoStatisticsTests {
+
+  @Autowired
+  private TodoService todoService;
+
+  @Autowired
+  private UserRepositroy userRepository;
+
+  @Autowired
+  private SyncCounterRepository syncCounterRepository;
+
+  @BeforeEach
+  void setUp() {
+    UserEntity user = userRepository.save(UserEntity.builder()
+        .username("statistics")
+        .email("statistics-" + UUID.randomUUID() + "@example.com")
+        .password("n/a")
+        .isActive(true)
+        .build());
+    syncCounterRepository.save(new SyncCounterEntity(user.getId(), 0L));
+    SecurityContextHolder.getContext().setAuthentication(
+        new UsernamePasswordAuthenticationToken(user.getEmail(), null, List.of()));
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void countersFollowSingleWrites() {
+    TodoDTO first = todoService.createTodo(TodoDTO.builder().title("first").build());
+    TodoDTO second = todoService.createTodo(TodoDTO.builder().title("second").isFavorite(true).build());
+    assertStatistics(2, 0, 0, 1);
+
+    todoService.toggleFavorite(first.getId(), null);
+    assertStatistics(2, 0, 0, 2);
+
+    todoService.startTodo(first.getId(), null);
+    assertStatistics(1, 1, 0, 2);
+
+    todoService.updateTodo(first.getId(), TodoDTO.builder().status(TodoStatus.COMPLETED).build(), null);
+    assertStatistics(1, 0, 1, 2);
+
+    todoService.deleteTodo(second.getId());
+    assertStatistics(0, 0, 1, 1);
+  }
+
+  @Test
+  void countersFollowBatches() {
+    TodoDTO kept = todoService.createTodo(TodoDTO.builder().title("kept").build());
+    TodoDTO removed = todoService.createTodo(TodoDTO.builder().title("removed").isFavorite(true).build());
+
+    todoService.applyBatch(TodoBatchRequestDTO.builder()
+        .create(List.of(TodoDTO.builder().title("new").isFavorite(true).build()))
+        .status(List.of(TodoDTO.builder().id(kept.getId()).status(TodoStatus.IN_PROGRESS).build()))
+        .delete(List.of(removed.getId()))
+        .build());
+    assertStatistics(1, 1, 0, 1);
+  }
+
+  @Test
+  void batchItemsSharingATodoAreRejected() {
+    TodoDTO todo = todoService.createTodo(TodoDTO.builder().title("contested").build());
+
+    List<TodoBatchResultDTO> results = todoService.applyBatch(TodoBatchRequestDTO.builder()
+        .status(List.of(TodoDTO.builder().id(todo.getId()).status(TodoStatus.COMPLETED).build()))
+        .delete(List.of(todo.getId()))
+        .build());
+
+    assertEquals(2, results.size());
+    assertTrue(results.stream().noneMatch(TodoBatchResultDTO::getSuccess));
+    assertStatistics(1, 0, 0, 0);
+  }
+
+  private void assertStatistics(long newCount, long inProgress, long completed, long favorites) {
+    Map<String, Long> statistics = todoService.getStatistics();
+    assertEquals(newCount, statistics.get("new"));
+    assertEquals(inProgress, statistics.get("inProgress"));
+    assertEquals(completed, statistics.get("completed"));
+    assertEquals(newCount + inProgress + completed, statistics.get("total"));
+    assertEquals(favorites, statistics.get("favorites"));
+  }
+}
@@ -0,0 +1,132 @@
+package neurogine.example.todo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import neurogine.example.todo.dto.TodoChangesDTO;
+import neurogine.example.todo.dto.TodoDTO;
+import neurogine.example.todo.entity.SyncCounterEntity;
+import neurogine.example.todo.entity.TodoSyncEntity;
+import neurogine.example.todo.entity.UserEntity;
+import neurogine.example.todo.repository.SyncCounterRepository;
+import neurogine.example.todo.repository.TodoSyncRepository;
+import neurogine.example.todo.repository.UserRepositroy;
+
+/**
+ * Paging through the change log, including the initial sync of todos that all share one version.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TodoSyncTests {
+
+  @Autowired
+  private TodoSyncService todoSyncService;
+
+  @Autowired
+  private TodoService todoService;
+
+  @Autowired
+  private UserRepositroy userRepository;
+
+  @Autowired
+  private SyncCounterRepository syncCounterRepository;
+
+  @Autowired
+  private TodoSyncRepository todoSyncRepository;
+
+  private Long userId;
+
+  @BeforeEach
+  void setUp() {
+    UserEntity user = userRepository.save(UserEntity.builder()
+        .username("sync")
+        .email("sync-" + UUID.randomUUID() + "@example.com")
+        .password("n/a")
+        .isActive(true)
+        .build());
+    userId = user.getId();
+    syncCounterRepository.save(new SyncCounterEntity(userId, 0L));
+    SecurityContextHolder.getContext().setAuthentication(
+        new UsernamePasswordAuthenticationToken(user.getEmail(), null, List.of()));
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void initialSyncPagesThroughTodosSharingOneVersion() {
+    List<Long> created = createTodos(7);
+    // what V3 leaves behind: every existing todo stamped with version 1
+    List<TodoSyncEntity> rows = todoSyncRepository.findAllById(created);
+    rows.forEach(row -> row.setVersion(1L));
+    todoSyncRepository.saveAll(rows);
+
+    List<Long> synced = new ArrayList<>();
+    String cursor = null;
+    TodoChangesDTO page;
+    do {
+      page = todoSyncService.getChanges(cursor, 3);
+      page.getChanged().forEach(todo -> synced.add(todo.getId()));
+      cursor = page.getCursor();
+    } while (page.getHasMore());
+
+    assertEquals(created, synced.stream().sorted().toList());
+    assertTrue(todoSyncService.getChanges(cursor, 3).getChanged().isEmpty());
+  }
+
+  @Test
+  void changesFollowTheCursor() {
+    List<Long> created = createTodos(2);
+    TodoChangesDTO initial = todoSyncService.getChanges(null, null);
+    assertEquals(2, initial.getChanged().size());
+    assertFalse(initial.getHasMore());
+
+    todoService.toggleFavorite(created.get(0), null);
+    todoService.deleteTodo(created.get(1));
+
+    TodoChangesDTO changes = todoSyncService.getChanges(initial.getCursor(), null);
+    assertEquals(List.of(created.get(0)), changes.getChanged().stream().map(TodoDTO::getId).toList());
+    assertEquals(List.of(created.get(1)), changes.getDeleted());
+    // nothing new since
+    TodoChangesDTO none = todoSyncService.getChanges(changes.getCursor(), null);
+    assertTrue(none.getChanged().isEmpty() && none.getDeleted().isEmpty());
+    assertEquals(changes.getCursor(), none.getCursor());
+  }
+
+  @Test
+  void versionOnlyCursorsResumeAfterTheWholeVersion() {
+    List<Long> created = createTodos(3);
+    long secondVersion = todoSyncRepository.findById(created.get(1)).orElseThrow().getVersion();
+
+    String legacy = Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(("v" + secondVersion).getBytes(StandardCharsets.UTF_8));
+    TodoChangesDTO changes = todoSyncService.getChanges(legacy, null);
+    assertEquals(List.of(created.get(2)), changes.getChanged().stream().map(TodoDTO::getId).toList());
+  }
+
+  private List<Long> createTodos(int count) {
+    List<Long> ids = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      ids.add(todoService.createTodo(TodoDTO.builder().title("todo " + i).build()).getId());
+    }
+    return ids.stream().sorted().toList();
+  }
+}
@@ -0,0 +1,187 @@
+package neurogine.example.todo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import io.jsonwebtoken.Claims;
+import neurogine.example.todo.dto.AuthDTO;
+import neurogine.example.todo.dto.UserDTO;
+import neurogine.example.todo.entity.UserEntity;
+import neurogine.example.todo.repository.UserRepositroy;
+import neurogine.example.todo.security.TokenRevocations;
+import neurogine.example.todo.util.JwtUtil;
+
+/**
+ * Refresh, rotation, logout and the revocations triggered by account changes, through UserService
+ * with the real token and revocation beans.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserServiceTokenTests {
+
+  private static final String PASSWORD = "secret";
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private UserRepositroy userRepository;
+
+  @Autowired
+  private PasswordEncoder passwordEncoder;
+
+  @Autowired
+  private JwtUtil jwtUtil;
+
+  @Autowired
+  private TokenRevocations tokenRevocations;
+
+  private String email;
+  private String accessToken;
+  private String refreshToken;
+
+  @BeforeEach
+  void setUp() {
+    email = "tokens-" + UUID.randomUUID() + "@example.com";
+    userService.registerProfile(UserDTO.builder().username("tokens").email(email).password(PASSWORD).build());
+    Map<String, Object> login = userService.authenticateAndGenerateToken(
+        AuthDTO.builder().email(email).password(PASSWORD).build());
+    accessToken = (String) login.get("token");
+    refreshToken = (String) login.get("refreshToken");
+  }
+
+  @Test
+  void refreshIssuesANewTokenPair() {
+    Map<String, Object> refreshed = userService.refreshToken(refreshToken);
+
+    Claims access = jwtUtil.verifyToken((String) refreshed.get("token"));
+    assertNotNull(access);
+    assertEquals(email, access.getSubject());
+    assertFalse(JwtUtil.isRefreshToken(access));
+    assertFalse(tokenRevocations.isRevoked(access));
+    assertTrue(JwtUtil.isRefreshToken(jwtUtil.verifyToken((String) refreshed.get("refreshToken"))));
+  }
+
+  @Test
+  void refreshTokensAreSingleUse() {
+    Map<String, Object> rotated = userService.refreshToken(refreshToken);
+
+    assertThrows(RuntimeException.class, () -> userService.refreshToken(refreshToken));
+    // the replacement is still good
+    assertNotNull(userService.refreshToken((String) rotated.get("refreshToken")));
+  }
+
+  @Test
+  void concurrentRefreshesOfOneTokenHaveOneWinner() throws Exception {
+    int attempts = 8;
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Boolean>> results = new ArrayList<>();
+    try (ExecutorService executor = Executors.newFixedThreadPool(attempts)) {
+      Callable<Boolean> refresh = () -> {
+        start.await();
+        try {
+          userService.refreshToken(refreshToken);
+          return true;
+        } catch (RuntimeException e) {
+          return false;
+        }
+      };
+      for (int i = 0; i < attempts; i++) {
+        results.add(executor.submit(refresh));
+      }
+      start.countDown();
+      int winners = 0;
+      for (Future<Boolean> result : results) {
+        winners += result.get() ? 1 : 0;
+      }
+      assertEquals(1, winners);
+    }
+  }
+
+  @Test
+  void accessTokensCannotBeRefreshed() {
+    assertThrows(RuntimeException.class, () -> userService.refreshToken(accessToken));
+  }
+
+  @Test
+  void logoutRevokesBothTokens() {
+    userService.logout(accessToken, refreshToken);
+
+    assertTrue(tokenRevocations.isRevoked(jwtUtil.verifyToken(accessToken)));
+    assertThrows(RuntimeException.class, () -> userService.refreshToken(refreshToken));
+  }
+
+  @Test
+  void passwordChangeRevokesIssuedTokens() {
+    UserEntity user = userRepository.findByEmail(email).orElseThrow();
+    user.setPassword(passwordEncoder.encode("changed"));
+    userRepository.save(user);
+
+    assertTrue(tokenRevocations.isRevoked(jwtUtil.verifyToken(accessToken)));
+    assertThrows(RuntimeException.class, () -> userService.refreshToken(refreshToken));
+  }
+
+  @Test
+  void deactivationRevokesIssuedTokens() {
+    UserEntity user = userRepository.findByEmail(email).orElseThrow();
+    user.setIsActive(false);
+    userRepository.save(user);
+
+    assertTrue(tokenRevocations.isRevoked(jwtUtil.verifyToken(accessToken)));
+    assertThrows(RuntimeException.class, () -> userService.refreshToken(refreshToken));
+  }
+
+  @Test
+  void deactivatedUsersCannotLogIn() {
+    UserEntity user = userRepository.findByEmail(email).orElseThrow();
+    user.setIsActive(false);
+    userRepository.save(user);
+
+    assertThrows(RuntimeException.class, () -> login(PASSWORD));
+  }
+
+  @Test
+  void tokensIssuedRightAfterARevocationAreValid() {
+    UserEntity user = userRepository.findByEmail(email).orElseThrow();
+    user.setPassword(passwordEncoder.encode("changed"));
+    userRepository.save(user);
+
+    // same second as the cut-off, in all likelihood
+    Map<String, Object> afterChange = login("changed");
+    assertFalse(tokenRevocations.isRevoked(jwtUtil.verifyToken((String) afterChange.get("token"))));
+    assertNotNull(userService.refreshToken((String) afterChange.get("refreshToken")));
+
+    user = userRepository.findByEmail(email).orElseThrow();
+    user.setIsActive(false);
+    userRepository.save(user);
+    user.setIsActive(true);
+    userRepository.save(user);
+
+    Map<String, Object> afterReactivation = login("changed");
+    assertFalse(tokenRevocations.isRevoked(jwtUtil.verifyToken((String) afterReactivation.get("token"))));
+  }
+
+  private Map<String, Object> login(String password) {
+    return userService.authenticateAndGenerateToken(AuthDTO.builder().email(email).password(password).build());
+  }
+}
@@ -0,0 +1,105 @@
+package neurogine.example.todo.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Validations per second for the request path in JwtRequestFilter.
+ * legacyValidate reproduces the old behaviour (three parses, each rebuilding key and parser);
+ * generateToken is the signing cost paid once per login.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JwtUtilBenchmark {
+
+  private static final String SECRET = "changeit_changeit_changeit_changeit";
+  private static final String EMAIL = "bench@example.com";
+
+  private JwtUtil jwtUtil;
+  private String token;
+  private UserDetails userDetails;
+
+  @Setup
+  public void setUp() {
+    jwtUtil = newJwtUtil();
+    token = jwtUtil.generateToken(EMAIL);
+    userDetails = User.withUsername(EMAIL).password("n/a").build();
+  }
+
+  /**
+   * JwtUtil as Spring would configure it with the default properties, for benchmarks outside a context
+   */
+  public static JwtUtil newJwtUtil() {
+    JwtUtil jwtUtil = new JwtUtil();
+    ReflectionTestUtils.setField(jwtUtil, "jwtSecret", SECRET);
+    ReflectionTestUtils.setField(jwtUtil, "expirationMinutes", 15L);
+    ReflectionTestUtils.setField(jwtUtil, "refreshExpirationDays", 14L);
+    ReflectionTestUtils.setField(jwtUtil, "claimsCacheSize", 10_000L);
+    ReflectionTestUtils.setField(jwtUtil, "meterRegistry", new SimpleMeterRegistry());
+    jwtUtil.init();
+    return jwtUtil;
+  }
+
+  @Benchmark
+  public String generateToken() {
+    return jwtUtil.generateToken(EMAIL);
+  }
+
+  @Benchmark
+  public boolean validateTokenCached() {
+    return jwtUtil.validateToken(token);
+  }
+
+  @Benchmark
+  public boolean legacyValidate() {
+    String username = legacyParse(token).getSubject();
+    return username.equals(userDetails.getUsername())
+        && legacyParse(token).getSubject().equals(username)
+        && !legacyParse(token).getExpiration().before(new Date());
+  }
+
+  @Benchmark
+  public Claims verifyUncached() {
+    return jwtUtil.parseAndVerify(token);
+  }
+
+  @Benchmark
+  public boolean validateCached() {
+    return jwtUtil.validateToken(token, userDetails);
+  }
+
+  private static Claims legacyParse(String token) {
+    SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+    return Jwts.parser()
+        .verifyWith(key)
+        .build()
+        .parseSignedClaims(token)
+        .getPayload();
+  }
+}
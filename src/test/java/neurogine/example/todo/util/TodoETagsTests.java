@@ -0,0 +1,41 @@
+package neurogine.example.todo.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+class TodoETagsTests {
+
+  @Test
+  void representationFollowsContentNegotiation() {
+    assertEquals("json", TodoETags.representation(null));
+    assertEquals("json", TodoETags.representation("*/*"));
+    assertEquals("json", TodoETags.representation("application/json"));
+    assertEquals("json", TodoETags.representation("text/html, application/*"));
+    assertEquals("json", TodoETags.representation("application/cbor;q=0.5, application/json"));
+    assertEquals("json", TodoETags.representation("not a media type"));
+    assertEquals("cbor", TodoETags.representation("application/cbor"));
+    assertEquals("cbor", TodoETags.representation("application/cbor, application/json"));
+    assertEquals("cbor", TodoETags.representation("*/*, application/cbor"));
+    assertEquals("cbor", TodoETags.representation("application/json;q=0.5, application/cbor"));
+  }
+
+  @Test
+  void representationsOfOneVersionHaveDifferentTags() {
+    assertEquals("\"7-3-json\"", TodoETags.forTodo(7L, 3L, "application/json"));
+    assertNotEquals(TodoETags.forTodo(7L, 3L, "application/json"), TodoETags.forTodo(7L, 3L, "application/cbor"));
+  }
+
+  @Test
+  void ifMatchComparesTheVersionOfAnyRepresentation() {
+    assertEquals(3L, TodoETags.expectedVersion("\"7-3-json\"", 7L));
+    assertEquals(3L, TodoETags.expectedVersion("\"7-3-cbor\"", 7L));
+    // tags issued before representations were part of them
+    assertEquals(3L, TodoETags.expectedVersion("\"7-3\"", 7L));
+    assertNull(TodoETags.expectedVersion("*", 7L));
+    assertEquals(-1L, TodoETags.expectedVersion("W/\"7-3-json\"", 7L));
+    assertEquals(-1L, TodoETags.expectedVersion("\"8-3-json\"", 7L));
+  }
+}